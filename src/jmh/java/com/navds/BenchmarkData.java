@@ -0,0 +1,42 @@
+package com.navds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONObject;
+
+/**
+ * Records shaped like res.partner search_read results
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static List<Map<String, Object>> records(int count) {
+        List<Map<String, Object>> records = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("id", i);
+            record.put("name", "Partner " + i);
+            record.put("email", "partner" + i + "@example.com");
+            record.put("active", i % 10 != 0);
+            record.put("credit_limit", i * 1.5);
+            record.put("country_id", Arrays.asList(75, "France"));
+            record.put("comment", i % 3 == 0 ? false : "Customer since " + (2000 + i % 20));
+            records.add(record);
+        }
+        return records;
+    }
+
+    static String searchReadBody(int count) {
+        JSONObject body = new JSONObject();
+        body.put("jsonrpc", "2.0");
+        body.put("id", 1);
+        body.put("result", records(count));
+        return body.toString();
+    }
+}
@@ -0,0 +1,65 @@
+package com.navds;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JSON-RPC request building: OdooRPCPayload.toString() of a search_read and of a multi-record create
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadBenchmark {
+
+    @Param({ "10", "1000" })
+    public int records;
+
+    private OdooRPCPayload searchRead;
+    private OdooRPCPayload create;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("lang", "en_US");
+        context.put("tz", "Europe/Paris");
+
+        Map<String, Object> kwargs = new HashMap<>();
+        kwargs.put("domain", Arrays.asList(Arrays.asList("customer_rank", ">", 0), Arrays.asList("active", "=", true)));
+        kwargs.put("fields", Arrays.asList("id", "name", "email", "country_id"));
+        kwargs.put("limit", records);
+        kwargs.put("order", "id asc");
+        searchRead = new OdooRPCPayload("res.partner", "search_read", Arrays.asList(), kwargs, context);
+
+        List<Map<String, Object>> values = BenchmarkData.records(records);
+        values.forEach(record -> record.remove("id"));
+        create = new OdooRPCPayload("res.partner", "create", Arrays.asList(values), new HashMap<>(), context);
+    }
+
+    @Benchmark
+    public String searchReadToString() {
+        return searchRead.toString();
+    }
+
+    @Benchmark
+    public String createToString() {
+        return create.toString();
+    }
+}
@@ -0,0 +1,57 @@
+package com.navds;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * search_read answers of 1k and 100k rows: buffered OdooRpcResponse against OdooJsonStreamParser
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ResponseParsingBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int rows;
+
+    private String body;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        body = BenchmarkData.searchReadBody(rows);
+        bytes = body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> buffered() {
+        return new OdooRpcResponse(200, body).resultAsRecords();
+    }
+
+    @Benchmark
+    public int streamed(Blackhole blackhole) throws IOException {
+        OdooJsonStreamParser parser = new OdooJsonStreamParser(blackhole::consume);
+        parser.parse(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        return parser.getRowCount();
+    }
+}
@@ -0,0 +1,68 @@
+package com.navds;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whole search_read calls of both clients against FakeOdooServer:
+ * request building, HTTP over pooled connections and response parsing
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoundTripBenchmark {
+    private static final List<String> FIELDS = Arrays.asList("id", "name", "email", "active", "credit_limit",
+        "country_id");
+
+    @Param({ "10", "1000" })
+    public int rows;
+
+    private FakeOdooServer server;
+    private OdooJSONRpc json;
+    private OdooXmlRpc xml;
+
+    @Setup
+    public void setup() throws Exception {
+        server = new FakeOdooServer();
+        server.getStore().insert("res.partner", BenchmarkData.records(rows));
+        json = new OdooJSONRpc(server.getUrl());
+        json.login("admin", "odoo", "admin");
+        xml = new OdooXmlRpc();
+        xml.login(server.getUrl(), "odoo", "admin", "admin");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        json.close();
+        xml.close();
+        server.close();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> jsonSearchRead() {
+        return json.searchReadRecords("res.partner", FIELDS, Arrays.asList(), 0, rows, "id asc");
+    }
+
+    @Benchmark
+    public List<?> xmlSearchRead() {
+        return xml.getRecords("res.partner", FIELDS, null, 0, rows, "id asc");
+    }
+}
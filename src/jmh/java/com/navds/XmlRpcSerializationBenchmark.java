@@ -0,0 +1,89 @@
+package com.navds;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
+import org.apache.xmlrpc.client.XmlRpcClientRequestImpl;
+import org.apache.xmlrpc.serializer.XmlRpcWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * XML-RPC request body of execute_kw calls: a write on many ids and a multi-record create
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XmlRpcSerializationBenchmark {
+
+    @Param({ "10", "1000" })
+    public int records;
+
+    private XmlRpcClient client;
+    private XmlRpcClientConfigImpl config;
+    private XmlRpcClientRequestImpl write;
+    private XmlRpcClientRequestImpl create;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+
+    @Setup
+    public void setup() throws Exception {
+        client = new XmlRpcClient();
+        config = new XmlRpcClientConfigImpl();
+        config.setServerURL(new URL("http://localhost:8069/xmlrpc/2/object"));
+        config.setEnabledForExtensions(true);
+
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 1; i <= records; i++) {
+            ids.add(i);
+        }
+        Map<String, Object> values = new HashMap<>();
+        values.put("state", "done");
+        write = request("stock.picking", "write", Arrays.asList(ids, values));
+
+        List<Map<String, Object>> created = BenchmarkData.records(records);
+        created.forEach(record -> record.remove("id"));
+        create = request("res.partner", "create", Arrays.asList(created));
+    }
+
+    private XmlRpcClientRequestImpl request(String model, String method, List<?> args) {
+        Object[] params = new Object[] { "odoo", 2, "secret", model, method, args };
+        return new XmlRpcClientRequestImpl(config, "execute_kw", params);
+    }
+
+    private int serialize(XmlRpcClientRequestImpl request) throws Exception {
+        out.reset();
+        new XmlRpcWriter(config, client.getXmlWriterFactory().getXmlWriter(config, out), client.getTypeFactory())
+            .write(request);
+        return out.size();
+    }
+
+    @Benchmark
+    public int writeManyIds() throws Exception {
+        return serialize(write);
+    }
+
+    @Benchmark
+    public int createMany() throws Exception {
+        return serialize(create);
+    }
+}
@@ -1,18 +1,18 @@
 package com.navds;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.xmlrpc.XmlRpcConfig;
 import org.apache.xmlrpc.XmlRpcException;
 import org.apache.xmlrpc.client.XmlRpcClient;
 import org.apache.xmlrpc.client.XmlRpcStreamTransport;
 import org.apache.xmlrpc.client.XmlRpcSunHttpTransport;
+import org.apache.xmlrpc.common.XmlRpcStreamConfig;
 import org.apache.xmlrpc.common.XmlRpcStreamRequestConfig;
 import org.xml.sax.SAXException;
 import org.json.XML;
@@ -25,7 +25,7 @@ import org.json.XML;
  */
 public class MessageLoggingTransport extends XmlRpcSunHttpTransport
 {
-    private static final Logger log = Logger.getLogger(MessageLoggingTransport.class.getName());
+    private static final Log log = LogFactory.getLog(MessageLoggingTransport.class);
     private boolean dumpJson = false;
 
 
@@ -54,40 +54,40 @@ public class MessageLoggingTransport extends XmlRpcSunHttpTransport
     {
         final ByteArrayOutputStream baos = new ByteArrayOutputStream();
         pWriter.write(baos);
-        System.out.println("dumpJson " + dumpJson);
-        String dump = this.dumpJson ? org.json.XML.toJSONObject(baos.toString()).toString(2) : baos.toString();
-        log.info(dump);
+        String xml = baos.toString(encoding(getClient().getClientConfig()));
+        log.info(this.dumpJson ? XML.toJSONObject(xml).toString(2) : xml);
         super.writeRequest(pWriter);
     }
 
 
     /**
-     * Dumps incoming XML-RPC responses to the log
+     * Dumps incoming XML-RPC responses to the log, the bytes handed to the parser are left untouched
      */
     @Override
     protected Object readResponse(XmlRpcStreamRequestConfig pConfig, InputStream pStream) throws XmlRpcException
     {
-        final StringBuffer sb = new StringBuffer();
-
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try
         {
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(pStream));
-            String line = reader.readLine();
-            while(line != null)
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = pStream.read(buffer)) >= 0)
             {
-                sb.append(line);
-                line = reader.readLine();
+                baos.write(buffer, 0, read);
             }
+            log.info(baos.toString(encoding(pConfig)));
         }
         catch(final IOException e)
         {
-            log.log(Level.SEVERE, "While reading server response", e);
+            log.error("While reading server response", e);
         }
 
-        log.info(sb.toString());
+        return super.readResponse(pConfig, new ByteArrayInputStream(baos.toByteArray()));
+    }
 
-        final ByteArrayInputStream bais = new ByteArrayInputStream(sb.toString().getBytes());
-        return super.readResponse(pConfig, bais);
+    private static String encoding(XmlRpcConfig config)
+    {
+        String encoding = config instanceof XmlRpcStreamConfig ? ((XmlRpcStreamConfig) config).getEncoding() : null;
+        return encoding == null ? XmlRpcStreamConfig.UTF8_ENCODING : encoding;
     }
 }
-
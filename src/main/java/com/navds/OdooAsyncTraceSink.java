@@ -0,0 +1,82 @@
+package com.navds;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Ring buffer between the calling threads and a slow sink (log, file...).
+ * accept never blocks: when the buffer is full the oldest trace is dropped.
+ * A daemon thread hands the traces to the delegate.
+ */
+public class OdooAsyncTraceSink implements OdooTraceSink, AutoCloseable {
+    private final static Log LOGGER = LogFactory.getLog(OdooAsyncTraceSink.class);
+    private final OdooTraceSink delegate;
+    private final ArrayBlockingQueue<OdooTrace> buffer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * @param delegate receives the traces, from the writer thread
+     * @param capacity traces kept while the delegate is busy
+     */
+    public OdooAsyncTraceSink(OdooTraceSink delegate, int capacity) {
+        this.delegate = delegate;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.writer = OdooExecutors.daemonThreadFactory("odoo-trace").newThread(this::drain);
+        this.writer.start();
+    }
+
+    @Override
+    public void accept(OdooTrace trace) {
+        if (closed) {
+            dropped.incrementAndGet();
+            return;
+        }
+        while (!buffer.offer(trace)) {
+            if (buffer.poll() != null) {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return traces lost because the buffer was full or the sink closed
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        while (!closed || !buffer.isEmpty()) {
+            try {
+                OdooTrace trace = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (trace != null) {
+                    delegate.accept(trace);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Trace sink failure", e);
+            }
+        }
+    }
+
+    /**
+     * Write the buffered traces and stop the writer thread
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
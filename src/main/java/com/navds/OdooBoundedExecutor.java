@@ -0,0 +1,131 @@
+package com.navds;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Run tasks on an executor with at most maxInFlight of them running at once.
+ * Extra tasks are queued without blocking the caller.
+ * A task submitted from a running task runs inline on the caller's slot: queuing it
+ * would deadlock once every slot is held by a task waiting for a nested one.
+ */
+public class OdooBoundedExecutor {
+    private final Executor executor;
+    private final int maxInFlight;
+    private final Queue<Task> pending = new ArrayDeque<>();
+    private int inFlight = 0;
+    // set while the current thread runs a task of this executor
+    private final ThreadLocal<Boolean> holdsSlot = new ThreadLocal<>();
+
+    private static class Task {
+        private final Runnable runnable;
+        private final CompletableFuture<?> future;
+
+        Task(Runnable runnable, CompletableFuture<?> future) {
+            this.runnable = runnable;
+            this.future = future;
+        }
+    }
+
+    public OdooBoundedExecutor(Executor executor, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxInFlight() {
+        return this.maxInFlight;
+    }
+
+    public synchronized int getInFlight() {
+        return this.inFlight;
+    }
+
+    public synchronized int getPending() {
+        return this.pending.size();
+    }
+
+    /**
+     * Schedule task
+     * @param task
+     * @return future completed with task result
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (holdsSlot.get() != null) {
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        Runnable runnable = () -> {
+            T result = null;
+            Throwable error = null;
+            holdsSlot.set(Boolean.TRUE);
+            try {
+                // skip tasks cancelled while queued
+                if (!future.isDone()) {
+                    result = task.get();
+                }
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                holdsSlot.remove();
+            }
+            release();
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        };
+        Task queued = new Task(runnable, future);
+        boolean dispatch;
+        synchronized (this) {
+            dispatch = inFlight < maxInFlight;
+            if (dispatch) {
+                inFlight++;
+            } else {
+                pending.add(queued);
+            }
+        }
+        if (dispatch) {
+            dispatch(queued);
+        }
+        return future;
+    }
+
+    private void release() {
+        dispatch(next());
+    }
+
+    // next queued task keeping the slot, or null once the slot is freed
+    private synchronized Task next() {
+        Task next = pending.poll();
+        if (next == null) {
+            inFlight--;
+        }
+        return next;
+    }
+
+    private void dispatch(Task task) {
+        // a loop, not a recursion: a saturated or shut down executor may reject every queued task
+        while (task != null) {
+            try {
+                executor.execute(task.runnable);
+                return;
+            } catch (RejectedExecutionException e) {
+                task.future.completeExceptionally(e);
+                task = next();
+            }
+        }
+    }
+}
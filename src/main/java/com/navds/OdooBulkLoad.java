@@ -0,0 +1,262 @@
+package com.navds;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Import rows with the load method in chunks sent concurrently.
+ * Odoo rolls back a whole load call when one row is wrong, so a failed chunk is split
+ * in two and each half loaded again, down to single rows: every valid row is imported
+ * and the Report lists the rows that are not, with odoo's messages.
+ * A call that fails without an answer from odoo (timeout, connection reset, access error)
+ * is not bisected: the server may have committed it, so its rows are reported as failed.
+ *
+ * Each row must hold a whole record: continuation lines of one2many fields could be
+ * split from their record when a chunk is cut or bisected.
+ */
+public class OdooBulkLoad {
+    private final static Log LOGGER = LogFactory.getLog(OdooBulkLoad.class);
+    private final static ExecutorService LOAD_EXECUTOR = OdooExecutors.newRpcExecutor("odoo-load");
+    public final static int DEFAULT_CHUNK_SIZE = 1000;
+    public final static int DEFAULT_MAX_CHUNK_BYTES = 2 * 1024 * 1024;
+    public final static int DEFAULT_PARALLELISM = 4;
+
+    /**
+     * One load call, throws if the call itself failed (network, access rights...):
+     * the chunk is then reported as failed, not bisected
+     */
+    public interface ChunkLoader {
+        LoadResult load(List<?> rows) throws Exception;
+    }
+
+    /**
+     * Answer of a load call
+     */
+    public static class LoadResult {
+        private final List<Integer> ids;
+        private final List<Map<String, Object>> messages;
+
+        /**
+         * @param ids imported ids, null if the chunk was rolled back
+         * @param messages odoo messages {type, message, record, field}
+         */
+        public LoadResult(List<Integer> ids, List<Map<String, Object>> messages) {
+            this.ids = ids;
+            this.messages = messages == null ? Collections.emptyList() : messages;
+        }
+    }
+
+    /**
+     * Message about one input row
+     */
+    public static class Message {
+        private final int row;
+        private final String type;
+        private final String text;
+        private final String field;
+
+        Message(int row, String type, String text, String field) {
+            this.row = row;
+            this.type = type;
+            this.text = text;
+            this.field = field;
+        }
+        /**
+         * @return index of the row in the input data
+         */
+        public int getRow() {
+            return this.row;
+        }
+        /**
+         * @return error, warning or info
+         */
+        public String getType() {
+            return this.type;
+        }
+        public String getText() {
+            return this.text;
+        }
+        /**
+         * @return field name, null if not field related
+         */
+        public String getField() {
+            return this.field;
+        }
+        @Override
+        public String toString() {
+            return "row " + row + " " + type + ": " + text + (field == null ? "" : " (" + field + ")");
+        }
+    }
+
+    /**
+     * Outcome of a bulk load
+     */
+    public static class Report {
+        private final List<Integer> ids = new ArrayList<>();
+        private final List<Integer> failedRows = new ArrayList<>();
+        private final List<Message> messages = new ArrayList<>();
+        private int requestCount;
+
+        /**
+         * @return imported ids, in input order
+         */
+        public List<Integer> getIds() {
+            return this.ids;
+        }
+        /**
+         * @return indexes of the input rows that were not imported
+         */
+        public List<Integer> getFailedRows() {
+            return this.failedRows;
+        }
+        public List<Message> getMessages() {
+            return this.messages;
+        }
+        /**
+         * @return number of load calls, bisection included
+         */
+        public int getRequestCount() {
+            return this.requestCount;
+        }
+        public boolean isComplete() {
+            return this.failedRows.isEmpty();
+        }
+    }
+
+    private final ChunkLoader loader;
+    private Executor executor = LOAD_EXECUTOR;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int maxChunkBytes = DEFAULT_MAX_CHUNK_BYTES;
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    public OdooBulkLoad(ChunkLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Max rows per load call
+     * @param chunkSize
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+    /**
+     * Approximate max payload per load call, 0 for no limit
+     * @param maxChunkBytes
+     */
+    public void setMaxChunkBytes(int maxChunkBytes) {
+        this.maxChunkBytes = maxChunkBytes;
+    }
+    /**
+     * Max concurrent load calls
+     * @param parallelism
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Load rows and wait for every chunk
+     * @param rows list of rows, one value per imported field
+     * @return report
+     */
+    public Report run(List<? extends List<?>> rows) {
+        OdooBoundedExecutor bounded = new OdooBoundedExecutor(executor, parallelism);
+        List<CompletableFuture<Report>> futures = new ArrayList<>();
+        int start = 0;
+        long bytes = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            bytes += estimateSize(rows.get(i));
+            boolean full = i + 1 - start >= chunkSize || (maxChunkBytes > 0 && bytes >= maxChunkBytes);
+            if (full || i == rows.size() - 1) {
+                int offset = start;
+                List<? extends List<?>> chunk = rows.subList(start, i + 1);
+                futures.add(bounded.submit(() -> {
+                    Report report = new Report();
+                    load(chunk, offset, report);
+                    return report;
+                }));
+                start = i + 1;
+                bytes = 0;
+            }
+        }
+        Report report = new Report();
+        for (CompletableFuture<Report> future : futures) {
+            Report chunkReport = future.join();
+            report.ids.addAll(chunkReport.ids);
+            report.failedRows.addAll(chunkReport.failedRows);
+            report.messages.addAll(chunkReport.messages);
+            report.requestCount += chunkReport.requestCount;
+        }
+        if (!report.isComplete()) {
+            LOGGER.warn(report.failedRows.size() + " of " + rows.size() + " rows could not be imported");
+        }
+        return report;
+    }
+
+    private void load(List<? extends List<?>> rows, int offset, Report report) {
+        LoadResult result;
+        report.requestCount++;
+        try {
+            result = loader.load(rows);
+        } catch (Exception e) {
+            // not a rollback answer: the chunk may have been imported, sending it again could duplicate rows
+            LOGGER.warn("Load of rows " + offset + "-" + (offset + rows.size() - 1) + " failed. " + e.getMessage());
+            for (int i = 0; i < rows.size(); i++) {
+                report.failedRows.add(offset + i);
+            }
+            addMessages(new LoadResult(null, Collections.singletonList(errorMessage(e))), offset, report);
+            return;
+        }
+        if (result.ids != null) {
+            report.ids.addAll(result.ids);
+            addMessages(result, offset, report);
+        } else if (rows.size() > 1) {
+            int half = rows.size() / 2;
+            load(rows.subList(0, half), offset, report);
+            load(rows.subList(half, rows.size()), offset + half, report);
+        } else {
+            report.failedRows.add(offset);
+            addMessages(result, offset, report);
+        }
+    }
+
+    private static Map<String, Object> errorMessage(Exception e) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("type", "error");
+        message.put("message", e.getMessage());
+        return message;
+    }
+
+    private static void addMessages(LoadResult result, int offset, Report report) {
+        for (Map<String, Object> message : result.messages) {
+            Object record = message.get("record");
+            Object field = message.get("field");
+            report.messages.add(new Message(
+                offset + (record instanceof Number ? ((Number) record).intValue() : 0),
+                String.valueOf(message.get("type")),
+                String.valueOf(message.get("message")),
+                field instanceof String ? (String) field : null));
+        }
+    }
+
+    private static long estimateSize(List<?> row) {
+        long size = 2;
+        for (Object value : row) {
+            size += value == null ? 4 : String.valueOf(value).length() + 3;
+        }
+        return size;
+    }
+}
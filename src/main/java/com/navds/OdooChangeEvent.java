@@ -0,0 +1,57 @@
+package com.navds;
+
+import java.util.Map;
+
+/**
+ * Record inserted, updated or deleted since a watermark
+ */
+public class OdooChangeEvent {
+    public enum Type {
+        INSERT, UPDATE, DELETE
+    }
+
+    private final Type type;
+    private final String model;
+    private final int id;
+    private final Map<String, Object> record;
+    private final OdooWatermark watermark;
+
+    OdooChangeEvent(Type type, String model, int id, Map<String, Object> record, OdooWatermark watermark) {
+        this.type = type;
+        this.model = model;
+        this.id = id;
+        this.record = record;
+        this.watermark = watermark;
+    }
+
+    public Type getType() {
+        return this.type;
+    }
+
+    public String getModel() {
+        return this.model;
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * @return record values, null for DELETE
+     */
+    public Map<String, Object> getRecord() {
+        return this.record;
+    }
+
+    /**
+     * @return watermark to save once this event is processed, null for DELETE
+     */
+    public OdooWatermark getWatermark() {
+        return this.watermark;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + model + "," + id;
+    }
+}
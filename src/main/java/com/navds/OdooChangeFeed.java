@@ -0,0 +1,195 @@
+package com.navds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Records inserted or updated after a watermark, paged by keyset on (write_date, id).
+ * Save getWatermark() once the events are processed, the next sync resumes from there.
+ * A failed page fetch is thrown by hasNext/next, the watermark then still points to the
+ * last event returned so the sync can resume.
+ *
+ * try (Stream&lt;OdooChangeEvent&gt; changes = odoo.changesSince("res.partner", fields, store.load("res.partner"))) {
+ *     changes.forEach(event -&gt; { apply(event); store.save("res.partner", event.getWatermark()); });
+ * }
+ *
+ * Deleted records can not be seen this way, tombstones() finds them among the ids already synced.
+ */
+public class OdooChangeFeed implements Iterator<OdooChangeEvent>, AutoCloseable {
+    private final static Log LOGGER = LogFactory.getLog(OdooChangeFeed.class);
+    public final static int DEFAULT_PAGE_SIZE = 1000;
+    public final static String ORDER = "write_date asc, id asc";
+
+    /**
+     * Ids among the given ones that still exist, archived records included
+     */
+    public interface IdFetcher {
+        List<Integer> existing(List<Integer> ids) throws Exception;
+    }
+
+    private final String model;
+    private final OdooRecordIterator.PageFetcher fetcher;
+    private final List<?> domain;
+    private final int pageSize;
+    private final OdooWatermark since;
+    private OdooWatermark watermark;
+    private Iterator<Map<String, Object>> current = Collections.emptyIterator();
+    private boolean lastPage = false;
+
+    /**
+     * @param model
+     * @param fetcher search_read ordered by ORDER
+     * @param domain extra filters, may be null
+     * @param since null to emit every record as an insert
+     * @param pageSize
+     */
+    public OdooChangeFeed(String model, OdooRecordIterator.PageFetcher fetcher, List<?> domain,
+            OdooWatermark since, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        this.model = model;
+        this.fetcher = fetcher;
+        this.domain = domain == null ? Collections.emptyList() : domain;
+        this.since = since;
+        this.watermark = since;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @return watermark of the last event returned by next()
+     */
+    public OdooWatermark getWatermark() {
+        return this.watermark;
+    }
+
+    private List<Object> pageDomain() {
+        List<Object> pageDomain = new ArrayList<>(domain);
+        if (watermark != null) {
+            String writeDate = watermark.getWriteDate();
+            pageDomain.add("|");
+            pageDomain.add(Arrays.asList("write_date", ">", writeDate));
+            pageDomain.add("&");
+            pageDomain.add(Arrays.asList("write_date", "=", writeDate));
+            pageDomain.add(Arrays.asList("id", ">", watermark.getId()));
+        }
+        return pageDomain;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (lastPage) {
+                return false;
+            }
+            List<Map<String, Object>> page = fetcher.fetch(pageDomain(), pageSize);
+            lastPage = page.size() < pageSize;
+            current = page.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public OdooChangeEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Map<String, Object> record = current.next();
+        int id = ((Number) record.get("id")).intValue();
+        String writeDate = String.valueOf(record.get("write_date"));
+        watermark = new OdooWatermark(writeDate, id);
+        return new OdooChangeEvent(isInsert(record, id) ? OdooChangeEvent.Type.INSERT : OdooChangeEvent.Type.UPDATE,
+                model, id, record, watermark);
+    }
+
+    private boolean isInsert(Map<String, Object> record, int id) {
+        if (since == null) {
+            return true;
+        }
+        Object createDate = record.get("create_date");
+        if (!(createDate instanceof String)) {
+            return false;
+        }
+        int order = ((String) createDate).compareTo(since.getWriteDate());
+        return order > 0 || (order == 0 && id > since.getId());
+    }
+
+    @Override
+    public void close() {
+        lastPage = true;
+        current = Collections.emptyIterator();
+    }
+
+    /**
+     * @return sequential stream, closing it stops the paging
+     */
+    public Stream<OdooChangeEvent> stream() {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(this::close);
+    }
+
+    /**
+     * Fields needed to page and classify changes, an empty list reads all fields
+     * @param fields
+     * @return fields with id, write_date and create_date
+     */
+    static List<String> withSyncFields(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(fields);
+        for (String field : Arrays.asList("id", "write_date", "create_date")) {
+            if (!result.contains(field)) {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Delete events for the known ids that no longer exist. A chunk whose
+     * lookup fails is logged and skipped, it never yields deletions.
+     * @param model
+     * @param knownIds ids synced so far
+     * @param fetcher
+     * @param chunkSize ids checked per request
+     * @return delete events
+     */
+    public static List<OdooChangeEvent> tombstones(String model, Collection<Integer> knownIds, IdFetcher fetcher,
+            int chunkSize) {
+        List<OdooChangeEvent> events = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>(knownIds);
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            List<Integer> chunk = ids.subList(start, Math.min(start + chunkSize, ids.size()));
+            Set<Integer> existing;
+            try {
+                existing = new HashSet<>(fetcher.existing(chunk));
+            } catch (Exception e) {
+                LOGGER.error("Unable to check deleted records of " + model + ". " + e.getMessage());
+                continue;
+            }
+            for (Integer id : chunk) {
+                if (!existing.contains(id)) {
+                    events.add(new OdooChangeEvent(OdooChangeEvent.Type.DELETE, model, id, null, null));
+                }
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,100 @@
+package com.navds;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Stops sending calls to a saturated server. After failureThreshold consecutive
+ * transient failures (no answer, 429, 502, 503, 504) the circuit opens and calls fail
+ * at once during openMillis. Then a single probe call is let through: its success
+ * closes the circuit, its failure opens it again. Odoo errors (UserError...) count as
+ * successes, the server did answer.
+ */
+public class OdooCircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    public final static int DEFAULT_FAILURE_THRESHOLD = 5;
+    public final static long DEFAULT_OPEN_MILLIS = 30000;
+    private final static Log LOGGER = LogFactory.getLog(OdooCircuitBreaker.class);
+    private final static ConcurrentMap<String, OdooCircuitBreaker> SERVERS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    public OdooCircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Breaker shared by every client of a server, with default settings
+     * @param server url, e.g. https://odoo.example.com
+     * @return OdooCircuitBreaker
+     */
+    public static OdooCircuitBreaker forServer(String server) {
+        return SERVERS.computeIfAbsent(server,
+            key -> new OdooCircuitBreaker(key, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS));
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Ask to send a call, onSuccess or onFailure must follow when true is returned
+     * @return false when the call must not be sent
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+        }
+        if (probing) {
+            return false;
+        }
+        probing = true;
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            LOGGER.info("Circuit closed for " + name);
+        }
+        state = State.CLOSED;
+        failures = 0;
+        probing = false;
+    }
+
+    public synchronized void onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            LOGGER.warn(String.format("Circuit opened for %s after %d failures", name, failures));
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+        probing = false;
+    }
+}
@@ -0,0 +1,125 @@
+package com.navds;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Thread-safe registry of authenticated OdooJSONRpc clients, one per (url, db, user).
+ * Each client owns its session cookie, so tenants can be driven concurrently.
+ * A client is only handed out for the password it logged in with (kept as a SHA-256 hash),
+ * and logs in again by itself when odoo answers that its session expired.
+ * Replaced and removed clients may still be in use by threads that got them earlier,
+ * they are closed with the registry.
+ */
+public class OdooClientRegistry implements Closeable {
+    private final static Log LOGGER = LogFactory.getLog(OdooClientRegistry.class);
+    private final ConcurrentMap<List<String>, Tenant> clients = new ConcurrentHashMap<>();
+    private final Queue<OdooJSONRpc> retired = new ConcurrentLinkedQueue<>();
+    private OdooHttpClientConfig httpClientConfig = new OdooHttpClientConfig();
+
+    private static class Tenant {
+        private final OdooJSONRpc client;
+        private final byte[] passwordHash;
+
+        Tenant(OdooJSONRpc client, byte[] passwordHash) {
+            this.client = client;
+            this.passwordHash = passwordHash;
+        }
+
+        boolean accepts(byte[] passwordHash) {
+            return client.isConnected() && MessageDigest.isEqual(this.passwordHash, passwordHash);
+        }
+    }
+
+    public OdooClientRegistry() {
+
+    }
+    public OdooClientRegistry(OdooHttpClientConfig httpClientConfig) {
+        this.httpClientConfig = httpClientConfig;
+    }
+
+    /**
+     * Return the client of given tenant, login on first use or when the password differs
+     * from the one the registered client logged in with.
+     * @param url
+     * @param db
+     * @param user
+     * @param password
+     * @return authenticated client or null on login failure
+     */
+    public OdooJSONRpc get(String url, String db, String user, String password) {
+        List<String> key = Arrays.asList(url, db, user);
+        byte[] passwordHash = hash(password);
+        Tenant current = clients.get(key);
+        if (current != null && current.accepts(passwordHash)) {
+            return current.client;
+        }
+        OdooJSONRpc newClient = new OdooJSONRpc(url);
+        newClient.setHttpClientConfig(httpClientConfig);
+        if (!newClient.login(user, db, password)) {
+            LOGGER.warn(String.format("Login failure on %s - %s as %s", url, db, user));
+            newClient.close();
+            return null;
+        }
+        Tenant tenant = new Tenant(newClient, passwordHash);
+        Tenant[] replaced = new Tenant[1];
+        // keep a client registered by a concurrent login with the same password
+        Tenant registered = clients.compute(key, (k, old) -> {
+            if (old != null && old != current && old.accepts(passwordHash)) {
+                return old;
+            }
+            replaced[0] = old;
+            return tenant;
+        });
+        if (registered != tenant) {
+            newClient.close();
+            return registered.client;
+        }
+        if (replaced[0] != null) {
+            retired.add(replaced[0].client);
+        }
+        return newClient;
+    }
+
+    private static byte[] hash(String password) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(String.valueOf(password).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Forget a tenant, its connections are released when the registry is closed
+     */
+    public void remove(String url, String db, String user) {
+        Tenant tenant = clients.remove(Arrays.asList(url, db, user));
+        if (tenant != null) {
+            retired.add(tenant.client);
+        }
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    @Override
+    public void close() {
+        clients.values().forEach(tenant -> tenant.client.close());
+        clients.clear();
+        for (OdooJSONRpc client = retired.poll(); client != null; client = retired.poll()) {
+            client.close();
+        }
+    }
+}
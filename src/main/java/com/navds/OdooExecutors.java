@@ -0,0 +1,75 @@
+package com.navds;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors used to run odoo calls in the background
+ */
+public final class OdooExecutors {
+    private final static Method VIRTUAL_EXECUTOR = findVirtualExecutorFactory();
+
+    private OdooExecutors() {
+    }
+
+    private static Method findVirtualExecutorFactory() {
+        try {
+            // Java 21+, looked up reflectively to keep the 1.8 build
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true when running on a JVM with virtual threads
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Daemon threads named prefix-N, they never prevent the JVM from exiting
+     * @param prefix
+     * @return ThreadFactory
+     */
+    public static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Unbounded pool of daemon threads, concurrency is expected to be bounded
+     * by the caller (see OdooBoundedExecutor)
+     * @param prefix thread name prefix
+     * @return ExecutorService
+     */
+    public static ExecutorService newRpcExecutor(String prefix) {
+        return Executors.newCachedThreadPool(daemonThreadFactory(prefix));
+    }
+
+    /**
+     * One virtual thread per task when the JVM supports it (Java 21+),
+     * otherwise falls back to newRpcExecutor(prefix).
+     * Blocking calls then cost a virtual thread instead of a platform thread.
+     * @param prefix thread name prefix of the fallback pool
+     * @return ExecutorService
+     */
+    public static ExecutorService newVirtualThreadExecutor(String prefix) {
+        if (VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // fall back to platform threads
+            }
+        }
+        return newRpcExecutor(prefix);
+    }
+}
@@ -0,0 +1,202 @@
+package com.navds;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * export_data split in chunks of ids run in parallel, rows are handed to a sink
+ * as chunks complete instead of building one huge answer.
+ * At most parallelism chunks are in flight or waiting to be written, so memory stays
+ * bounded whatever the number of ids. A failing chunk is retried, then reported in the Result.
+ *
+ * OdooExport export = odoo.partitionedExport("res.partner", fields);
+ * export.setParallelism(8);
+ * try (Writer out = Files.newBufferedWriter(path)) {
+ *     export.run(ids, OdooRowSink.csv(out, fields));
+ * }
+ */
+public class OdooExport {
+    private final static Log LOGGER = LogFactory.getLog(OdooExport.class);
+    private final static ExecutorService EXPORT_EXECUTOR = OdooExecutors.newRpcExecutor("odoo-export");
+    public final static int DEFAULT_CHUNK_SIZE = 1000;
+    public final static int DEFAULT_PARALLELISM = 4;
+
+    /**
+     * export_data of some ids, throws on failure
+     */
+    public interface ChunkExporter {
+        List<List<Object>> export(List<Integer> ids) throws Exception;
+    }
+
+    /**
+     * Outcome of an export
+     */
+    public static class Result {
+        private final long rowCount;
+        private final List<Integer> failedIds;
+
+        Result(long rowCount, List<Integer> failedIds) {
+            this.rowCount = rowCount;
+            this.failedIds = failedIds;
+        }
+        public long getRowCount() {
+            return this.rowCount;
+        }
+        /**
+         * @return ids of the chunks that failed after all retries
+         */
+        public List<Integer> getFailedIds() {
+            return this.failedIds;
+        }
+        public boolean isComplete() {
+            return this.failedIds.isEmpty();
+        }
+    }
+
+    private static class Chunk {
+        private final List<Integer> ids;
+        private List<List<Object>> rows;
+        private Throwable error;
+        private CompletableFuture<Chunk> future;
+
+        Chunk(List<Integer> ids) {
+            this.ids = ids;
+        }
+    }
+
+    private final ChunkExporter exporter;
+    private Executor executor = EXPORT_EXECUTOR;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private boolean ordered = true;
+    private int maxRetries = 2;
+    private long retryDelayMillis = 1000;
+
+    public OdooExport(ChunkExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+    /**
+     * Write rows in ids order (default), or as chunks complete
+     * @param ordered
+     */
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+    /**
+     * @param maxRetries attempts after the first one for a failing chunk
+     * @param retryDelayMillis wait before the first retry, doubled for each following one
+     */
+    public void setRetries(int maxRetries, long retryDelayMillis) {
+        this.maxRetries = maxRetries;
+        this.retryDelayMillis = retryDelayMillis;
+    }
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Export the given ids to sink, which is only called from the calling thread
+     * @param ids
+     * @param sink
+     * @return row count and failed ids
+     * @throws IOException if the sink fails, chunks in flight are discarded
+     */
+    public Result run(List<Integer> ids, OdooRowSink sink) throws IOException {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            chunks.add(ids.subList(start, Math.min(start + chunkSize, ids.size())));
+        }
+        Deque<Chunk> inFlight = new ArrayDeque<>();
+        BlockingQueue<Chunk> completed = new LinkedBlockingQueue<>();
+        List<Integer> failedIds = new ArrayList<>();
+        long rowCount = 0;
+        int next = 0;
+        try {
+            for (int written = 0; written < chunks.size(); written++) {
+                while (next < chunks.size() && inFlight.size() < parallelism) {
+                    Chunk chunk = new Chunk(chunks.get(next++));
+                    chunk.future = CompletableFuture.supplyAsync(() -> export(chunk), executor);
+                    if (!ordered) {
+                        // queued even when completed exceptionally, take() would wait for it forever
+                        chunk.future.whenComplete((done, error) -> completed.add(chunk));
+                    }
+                    inFlight.add(chunk);
+                }
+                Chunk chunk;
+                if (ordered) {
+                    chunk = inFlight.poll();
+                } else {
+                    chunk = completed.take();
+                    inFlight.remove(chunk);
+                }
+                try {
+                    chunk.future.join();
+                } catch (CompletionException | CancellationException e) {
+                    LOGGER.error("Export of " + chunk.ids.size() + " records failed. " + e.getCause());
+                    chunk.error = e.getCause() == null ? e : e.getCause();
+                }
+                if (chunk.error != null) {
+                    failedIds.addAll(chunk.ids);
+                    continue;
+                }
+                for (List<Object> row : chunk.rows) {
+                    sink.accept(row);
+                }
+                rowCount += chunk.rows.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } finally {
+            inFlight.forEach(chunk -> chunk.future.cancel(false));
+        }
+        return new Result(rowCount, Collections.unmodifiableList(failedIds));
+    }
+
+    private Chunk export(Chunk chunk) {
+        long delay = retryDelayMillis;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                chunk.rows = exporter.export(chunk.ids);
+                return chunk;
+            } catch (Exception e) {
+                if (attempt >= maxRetries) {
+                    LOGGER.error("Export of " + chunk.ids.size() + " records failed after " + (attempt + 1)
+                        + " attempts. " + e.getMessage());
+                    chunk.error = e;
+                    return chunk;
+                }
+                LOGGER.warn("Export of " + chunk.ids.size() + " records failed, retrying. " + e.getMessage());
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                chunk.error = e;
+                return chunk;
+            }
+            delay *= 2;
+        }
+    }
+}
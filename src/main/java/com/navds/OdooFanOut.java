@@ -0,0 +1,182 @@
+package com.navds;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fan out one call per item and wait for all of them (structured concurrency):
+ * map/forEach return once every call is done, the first failure cancels the remaining ones.
+ * Calls run on virtual threads when available, the number of concurrent calls
+ * to one odoo server is bounded by a semaphore shared by every OdooFanOut of that server.
+ *
+ * List&lt;Map&gt; partners = new OdooFanOut(odooUrl, 200).map(ids, id -&gt; odoo.getRecordById("res.partner", id, fields));
+ */
+public class OdooFanOut {
+    private final static ConcurrentMap<String, Semaphore> SERVER_PERMITS = new ConcurrentHashMap<>();
+    private final static ExecutorService EXECUTOR = OdooExecutors.newVirtualThreadExecutor("odoo-fanout");
+    public final static int DEFAULT_SERVER_CONCURRENCY = 64;
+
+    private final Semaphore permits;
+    private ExecutorService executor = EXECUTOR;
+
+    /**
+     * @param server odoo url, use the same value for every client of a server
+     */
+    public OdooFanOut(String server) {
+        this(server, DEFAULT_SERVER_CONCURRENCY);
+    }
+
+    /**
+     * @param server odoo url, use the same value for every client of a server
+     * @param maxConcurrency max calls in flight to this server, only the first value given for a server is kept
+     */
+    public OdooFanOut(String server, int maxConcurrency) {
+        this.permits = SERVER_PERMITS.computeIfAbsent(server, s -> new Semaphore(maxConcurrency));
+    }
+
+    /**
+     * Run tasks on the given executor instead of the shared virtual thread executor
+     * @param executor
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Number of calls that can still be started on this server
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Apply call to every item concurrently
+     * @param items
+     * @param call
+     * @return results in items order
+     * @throws CompletionException wrapping the first failure, once the calls already started are done
+     */
+    public <T, R> List<R> map(Collection<T> items, Function<? super T, ? extends R> call) {
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        // set by whichever of the task and the cancellation comes first, the other one leaves the permit alone
+        List<AtomicBoolean> claims = new ArrayList<>(items.size());
+        List<CountDownLatch> finishes = new ArrayList<>(items.size());
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        for (T item : items) {
+            // acquiring before submit also bounds threads of the platform thread fallback
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                firstFailure.compareAndSet(null, e);
+                break;
+            }
+            if (firstFailure.get() != null) {
+                permits.release();
+                break;
+            }
+            AtomicBoolean claimed = new AtomicBoolean();
+            CountDownLatch finished = new CountDownLatch(1);
+            try {
+                futures.add(executor.submit(() -> {
+                    if (!claimed.compareAndSet(false, true)) {
+                        throw new CancellationException();
+                    }
+                    try {
+                        return call.apply(item);
+                    } catch (Throwable e) {
+                        firstFailure.compareAndSet(null, e);
+                        throw e;
+                    } finally {
+                        permits.release();
+                        finished.countDown();
+                    }
+                }));
+                claims.add(claimed);
+                finishes.add(finished);
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                firstFailure.compareAndSet(null, e);
+                break;
+            }
+        }
+        List<R> results = new ArrayList<>(items.size());
+        for (Future<R> future : futures) {
+            if (firstFailure.get() != null) {
+                break;
+            }
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                firstFailure.compareAndSet(null, e.getCause());
+            } catch (CancellationException e) {
+                firstFailure.compareAndSet(null, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                firstFailure.compareAndSet(null, e);
+            }
+        }
+        Throwable failure = firstFailure.get();
+        if (failure != null) {
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).cancel(true);
+                // a task cancelled before it started never runs its finally
+                if (claims.get(i).compareAndSet(false, true)) {
+                    permits.release();
+                    finishes.get(i).countDown();
+                }
+            }
+            awaitStarted(finishes);
+            throw new CompletionException(failure);
+        }
+        return results;
+    }
+
+    /**
+     * Wait for the cancelled tasks that had already started, they may still be calling odoo
+     */
+    private static void awaitStarted(List<CountDownLatch> finishes) {
+        boolean interrupted = false;
+        for (CountDownLatch finished : finishes) {
+            while (true) {
+                try {
+                    finished.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Run call for every item concurrently
+     * @param items
+     * @param call
+     * @throws CompletionException wrapping the first failure
+     */
+    public <T> void forEach(Collection<T> items, Consumer<? super T> call) {
+        map(items, item -> {
+            call.accept(item);
+            return null;
+        });
+    }
+}
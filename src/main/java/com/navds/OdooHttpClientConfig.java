@@ -0,0 +1,214 @@
+package com.navds;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+/**
+ * Settings of the pooled http client used to talk to odoo.
+ * One pool is created per client instance and reused by every call.
+ */
+public class OdooHttpClientConfig {
+    private int maxTotal = 20;
+    private int maxPerRoute = 10;
+    private long keepAliveMillis = 30000;
+    private long idleTimeoutMillis = 30000;
+    private int validateAfterInactivityMillis = 2000;
+    private int connectTimeout = 60000;
+    private int socketTimeout = 60000;
+    private boolean tcpNoDelay = true;
+    private boolean soKeepAlive = true;
+    private int bufferSize = 8192;
+    private boolean responseCompression = true;
+    private int requestCompressionThreshold = -1;
+
+    public int getMaxTotal() {
+        return this.maxTotal;
+    }
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+    public int getMaxPerRoute() {
+        return this.maxPerRoute;
+    }
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+    /**
+     * Keep-alive used when the server does not send a Keep-Alive header.
+     * The server value is capped to it as well.
+     * @param keepAliveMillis
+     */
+    public void setKeepAliveMillis(long keepAliveMillis) {
+        this.keepAliveMillis = keepAliveMillis;
+    }
+    public long getKeepAliveMillis() {
+        return this.keepAliveMillis;
+    }
+    /**
+     * Pooled connections idle for longer than this are evicted
+     * @param idleTimeoutMillis
+     */
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+    public long getIdleTimeoutMillis() {
+        return this.idleTimeoutMillis;
+    }
+    public void setValidateAfterInactivityMillis(int validateAfterInactivityMillis) {
+        this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+    }
+    public int getValidateAfterInactivityMillis() {
+        return this.validateAfterInactivityMillis;
+    }
+    public int getConnectTimeout() {
+        return this.connectTimeout;
+    }
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+    public int getSocketTimeout() {
+        return this.socketTimeout;
+    }
+    public void setSocketTimeout(int socketTimeout) {
+        this.socketTimeout = socketTimeout;
+    }
+    public boolean isTcpNoDelay() {
+        return this.tcpNoDelay;
+    }
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+    public boolean isSoKeepAlive() {
+        return this.soKeepAlive;
+    }
+    public void setSoKeepAlive(boolean soKeepAlive) {
+        this.soKeepAlive = soKeepAlive;
+    }
+    /**
+     * Size of the connection read/write buffers
+     * @param bufferSize
+     */
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+    public int getBufferSize() {
+        return this.bufferSize;
+    }
+
+    /**
+     * Advertise Accept-Encoding gzip, deflate and transparently decompress responses
+     * @param responseCompression
+     */
+    public void setResponseCompression(boolean responseCompression) {
+        this.responseCompression = responseCompression;
+    }
+    public boolean isResponseCompression() {
+        return this.responseCompression;
+    }
+    /**
+     * Gzip request bodies of at least this many bytes, -1 (default) to never compress.
+     * Odoo itself does not decode compressed requests, enable it only behind a
+     * proxy that does.
+     * @param requestCompressionThreshold
+     */
+    public void setRequestCompressionThreshold(int requestCompressionThreshold) {
+        this.requestCompressionThreshold = requestCompressionThreshold;
+    }
+    public int getRequestCompressionThreshold() {
+        return this.requestCompressionThreshold;
+    }
+
+    /**
+     * @param length request body size
+     * @return true if a body of this size must be gzipped
+     */
+    public boolean isCompressingRequest(long length) {
+        return requestCompressionThreshold >= 0 && length >= requestCompressionThreshold;
+    }
+
+    /**
+     * Request entity, gzipped (with Content-Encoding and Content-Length set) above the threshold
+     * @param body
+     * @param contentType
+     * @return HttpEntity
+     */
+    public HttpEntity createRequestEntity(byte[] body, ContentType contentType) throws IOException {
+        if (!isCompressingRequest(body.length)) {
+            return new ByteArrayEntity(body, contentType);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        ByteArrayEntity entity = new ByteArrayEntity(compressed.toByteArray(), contentType);
+        entity.setContentEncoding("gzip");
+        return entity;
+    }
+
+    public RequestConfig createRequestConfig() {
+        return RequestConfig.custom()
+            .setConnectTimeout(connectTimeout)
+            .setSocketTimeout(socketTimeout)
+            .build();
+    }
+
+    public PoolingHttpClientConnectionManager createConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivityMillis);
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+            .setTcpNoDelay(tcpNoDelay)
+            .setSoKeepAlive(soKeepAlive)
+            .setSoTimeout(socketTimeout)
+            .build());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+            .setBufferSize(bufferSize)
+            .build());
+        return connectionManager;
+    }
+
+    /**
+     * Honor server Keep-Alive timeout, falling back to (and capped by) keepAliveMillis
+     */
+    public ConnectionKeepAliveStrategy createKeepAliveStrategy() {
+        return (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? Math.min(duration, keepAliveMillis) : keepAliveMillis;
+        };
+    }
+
+    /**
+     * Build a client owning the given connection manager.
+     * Closing the client closes the pool and stops idle eviction.
+     * @param connectionManager
+     * @return CloseableHttpClient
+     */
+    public CloseableHttpClient createHttpClient(PoolingHttpClientConnectionManager connectionManager) {
+        HttpClientBuilder builder = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(createRequestConfig())
+            .setKeepAliveStrategy(createKeepAliveStrategy())
+            .evictExpiredConnections()
+            .evictIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+        if (!responseCompression) {
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
+}
@@ -1,48 +1,81 @@
 package com.navds;
 
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.CookieStore;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.protocol.HttpClientContext;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.HttpEntityWrapper;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.json.JSONArray;
+import org.json.JSONObject;
 
-public class OdooJSONRpc {
+public class OdooJSONRpc implements Closeable {
     /**
      * OdooJSONRpc: A simple and intuitive java class to talk to odoo 
      * @author: Navalona Ramanantoanina <github/Navds>
      */
     private String odooUrl = "";
+    private volatile String database;
+    private volatile int uid = -1;
+    private volatile String user;
+    private volatile String password;
+    private volatile OdooMetadataCache metadataCache;
+    private volatile OdooRecordCache recordCache;
     private final static Log LOGGER = LogFactory.getLog(OdooJSONRpc.class);
-    private boolean connected = false;
+    private volatile boolean connected = false;
     private boolean dumpRequest = false;
-    private RequestConfig requestConfig = RequestConfig.custom().setSocketTimeout(60000).setConnectTimeout(60000)
-            .build();
-    private static CookieStore cookieStore = new BasicCookieStore();
-    private static HttpClientContext httpContext = new HttpClientContext();
+    private OdooHttpClientConfig httpClientConfig = new OdooHttpClientConfig();
+    private RequestConfig requestConfig = httpClientConfig.createRequestConfig();
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private final CookieStore cookieStore = new BasicCookieStore();
     private Map<String,Object> context = new HashMap<>();
+    private int maxInFlight = 10;
+    private Executor asyncExecutor;
+    private ExecutorService ownExecutor;
+    private OdooBoundedExecutor boundedExecutor;
+    private volatile OdooMetrics metrics = OdooMetrics.NOOP;
+    private volatile OdooTracer tracer;
+    private volatile OdooRetryPolicy retryPolicy;
+    private volatile OdooCircuitBreaker circuitBreaker;
 
     public static final String AUTH_URI = "/web/session/authenticate";
     public static final String SESSION_URI = "/web/session/get_session_info";
     public static final String MODULES_URI = "/web/session/modules";
     public static final String DBLIST_URI = "/web/database/list";
     public static final String CALLKW_URI = "/web/dataset/call_kw";
+    public static final String SESSION_EXPIRED = "odoo.http.SessionExpiredException";
     public static final String SEARCHR_URI = "/web/dataset/search_read";
+    public static final int DEFAULT_CREATE_CHUNK_SIZE = 500;
 
     /**
      * Dump sent request + received response
@@ -67,12 +100,128 @@ public class OdooJSONRpc {
         if (this.context == null) this.context = new HashMap<>();
         this.context.put(name,value);
     }
+    /**
+     * Configure pool size, keep-alive, idle eviction and timeouts.
+     * An already opened pool is closed and rebuilt on next call.
+     * @param config
+     */
+    public synchronized void setHttpClientConfig(OdooHttpClientConfig config) {
+        this.httpClientConfig = config;
+        this.requestConfig = config.createRequestConfig();
+        closeHttpClient();
+    }
+    public OdooHttpClientConfig getHttpClientConfig() {
+        return this.httpClientConfig;
+    }
+    /**
+     * Cache of fields_get answers, null (the default) to disable, e.g. OdooMetadataCache.getShared()
+     * @param metadataCache
+     */
+    public void setMetadataCache(OdooMetadataCache metadataCache) {
+        this.metadataCache = metadataCache;
+    }
+    public OdooMetadataCache getMetadataCache() {
+        return this.metadataCache;
+    }
+    /**
+     * Cache of records used by read, null (the default) to disable
+     * @param recordCache
+     */
+    public void setRecordCache(OdooRecordCache recordCache) {
+        this.recordCache = recordCache;
+    }
+    public OdooRecordCache getRecordCache() {
+        return this.recordCache;
+    }
+    /**
+     * Executor running async calls, default is a pool owned by this instance
+     * @param executor
+     */
+    public synchronized void setAsyncExecutor(Executor executor) {
+        this.asyncExecutor = executor;
+        this.boundedExecutor = null;
+    }
+    /**
+     * Max number of async calls running at once, others are queued.
+     * Keep it below the pool max per route to avoid waiting for a connection.
+     * @param maxInFlight
+     */
+    public synchronized void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        this.boundedExecutor = null;
+    }
+    public int getMaxInFlight() {
+        return this.maxInFlight;
+    }
+    /**
+     * Report every call to metrics, the connection pool is bound as "json"
+     * @param metrics OdooMetrics.NOOP (the default) to disable
+     */
+    public void setMetrics(OdooMetrics metrics) {
+        setMetrics(metrics, "json");
+    }
+    /**
+     * Report every call to metrics
+     * @param metrics OdooMetrics.NOOP (the default) to disable
+     * @param poolName name the connection pool is bound with
+     */
+    public void setMetrics(OdooMetrics metrics, String poolName) {
+        this.metrics = metrics;
+        metrics.bindPool(poolName, this::getPoolStats);
+    }
+    public OdooMetrics getMetrics() {
+        return this.metrics;
+    }
+    /**
+     * Trace sampled calls, unlike dumpRequest bodies are captured while streamed
+     * and handed to the tracer sink
+     * @param tracer null (the default) to disable
+     */
+    public void setTracer(OdooTracer tracer) {
+        this.tracer = tracer;
+    }
+    public OdooTracer getTracer() {
+        return this.tracer;
+    }
+    /**
+     * Send failed calls again, see OdooRetryPolicy for what is retried
+     * @param retryPolicy null (the default) to never retry
+     */
+    public void setRetryPolicy(OdooRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+    public OdooRetryPolicy getRetryPolicy() {
+        return this.retryPolicy;
+    }
+    /**
+     * Fail calls at once while the server is saturated, usually OdooCircuitBreaker.forServer(url)
+     * so every client of the server shares it. An open circuit makes calls return a
+     * response whose error name is circuit_open.
+     * @param circuitBreaker null (the default) to disable
+     */
+    public void setCircuitBreaker(OdooCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+    public OdooCircuitBreaker getCircuitBreaker() {
+        return this.circuitBreaker;
+    }
     public OdooJSONRpc() {
 
     }
     public OdooJSONRpc(String url) {
         this.odooUrl = url;
-       httpContext.setAttribute(HttpClientContext.COOKIE_STORE, cookieStore);
+    }
+
+    public String getUrl() {
+        return this.odooUrl;
+    }
+
+    /**
+     * Session cookies of this instance only
+     * @return CookieStore
+     */
+    public CookieStore getCookieStore() {
+        return this.cookieStore;
     }
 
     /**
@@ -86,9 +235,34 @@ public class OdooJSONRpc {
         payload.prepareLogin(user, password, db);
         OdooRpcResponse response = execute(AUTH_URI, payload);
         connected = response.isOkay();
+        if (connected) {
+            database = db;
+            uid = response.getResultObject().optInt("uid", -1);
+            this.user = user;
+            this.password = password;
+        }
         return connected;
     }
 
+    /**
+     * Login again with the last credentials, after the server dropped the session
+     */
+    private synchronized boolean relogin(String expiredDatabase) {
+        if (expiredDatabase == null || user == null) {
+            connected = false;
+            return false;
+        }
+        LOGGER.info(String.format("Session expired on %s - %s, login again as %s", odooUrl, expiredDatabase, user));
+        return login(user, expiredDatabase, password);
+    }
+
+    /**
+     * @return id of the logged in user, -1 before login
+     */
+    public int getUid() {
+        return uid;
+    }
+
     /**
      * Check if connection active
      * @return true on success
@@ -152,18 +326,78 @@ public class OdooJSONRpc {
      * @return List of Map<field,value>
      */
     public List<Map> read(String model, List<String> fields, List<Integer> ids) {
+        OdooRecordCache cache = recordCache;
+        if (cache != null) {
+            return readCached(cache, model, fields, ids);
+        }
         List<Map> result = new ArrayList<>();
         OdooRpcResponse response = callKw(model, "read", Arrays.asList(ids, fields));
         if (response.isOkay()){
-            result = response.getResultArray()
-                .toList()
-                .stream()
-                .map(o -> ((Map) o))
-                .collect(Collectors.toList());
+            result = new ArrayList<>(response.resultAsRecords());
         } 
         return result;
     }
 
+    private List<Map> readCached(OdooRecordCache cache, String model, List<String> fields, List<Integer> ids) {
+        Map<Integer, Map<String,Object>> records = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Map<String,Object> record = cache.get(model, id, fields);
+            if (record != null) {
+                records.put(id, record);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long generation = cache.getGeneration(model);
+            OdooRpcResponse response = callKw(model, "read", Arrays.asList(missing, fields));
+            if (!response.isOkay()) {
+                return new ArrayList<>();
+            }
+            for (Map<String,Object> record : response.resultAsRecords()) {
+                cache.put(model, fields, record, generation);
+                records.put(((Number) record.get("id")).intValue(), record);
+            }
+        }
+        // keep the order of ids, like read does, skipping deleted records
+        List<Map> result = new ArrayList<>(records.size());
+        for (Integer id : ids) {
+            Map<String,Object> record = records.get(id);
+            if (record != null) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Fields definition of a model, served from the metadata cache when set
+     * @param model
+     * @param attributes List of field attributes to return (string, type, relation...)
+     * @return Map field => attributes, empty on failure
+     */
+    public Map<String,Object> fieldsGet(String model, List<String> attributes) {
+        OdooMetadataCache cache = metadataCache;
+        if (cache == null) {
+            return loadFields(model, attributes);
+        }
+        Map<String,Object> context = this.context;
+        String lang = context == null ? null : Objects.toString(context.get("lang"), null);
+        return cache.fieldsGet(odooUrl, database, uid, lang, model, attributes, () -> loadFields(model, attributes));
+    }
+
+    private Map<String,Object> loadFields(String model, List<String> attributes) {
+        Map<String,Object> fields = new HashMap<>();
+        Map<String,Object> kwargs = new HashMap<>();
+        kwargs.put("attributes", attributes);
+        OdooRpcResponse response = callKw(model, "fields_get", new ArrayList<>(), kwargs);
+        if (response.isOkay()) {
+            fields = response.getResultObject().toMap();
+        }
+        return fields;
+    }
+
     /**
      * This will return all matches
      */
@@ -205,6 +439,155 @@ public class OdooJSONRpc {
             return result;
     }
     
+    /**
+     * Search record using filter (domains) and hand every record to consumer
+     * while the response is parsed, without holding the whole result in memory
+     * @param model
+     * @param fields List<String>
+     * @param domains List of List
+     * @param consumer receives one record at a time
+     * @return number of records received, -1 on failure
+     */
+    @SuppressWarnings("unchecked")
+    public int searchRead(String model,
+        List<String> fields,
+        List<?> domains,
+        Consumer<Map<String,Object>> consumer
+        ) {
+            Map<String,Object> kwargs = new HashMap<>();
+            kwargs.put("domain", domains);
+            kwargs.put("fields", fields);
+            int[] count = {0};
+            OdooRpcResponse response = callKw(model, "search_read", new ArrayList<>(), kwargs, row -> {
+                count[0]++;
+                consumer.accept((Map<String,Object>) row);
+            });
+            return response.isOkay() ? count[0] : -1;
+    }
+
+    /**
+     * Search record using filter (domains) then return selected fields as records
+     * @param model
+     * @param fields List<String>
+     * @param domains List of List
+     * @param offset
+     * @param limit 0 for all
+     * @param order default ""
+     * @return List of Map<field,value>
+     */
+    public List<Map<String,Object>> searchReadRecords(String model,
+        List<String> fields,
+        List<?> domains,
+        int offset,
+        int limit,
+        String order
+        ) {
+            List<Map<String,Object>> result = new ArrayList<>();
+            Map<String,Object> kwargs = new HashMap<>();
+            kwargs.put("domain", domains);
+            kwargs.put("fields", fields);
+            kwargs.put("offset", offset);
+            kwargs.put("limit", limit);
+            kwargs.put("order", order);
+            OdooRpcResponse response = callKw(model, "search_read", new ArrayList<>(), kwargs);
+            if (response.isOkay()) {
+                result = response.resultAsRecords();
+            }
+            return result;
+    }
+
+    /**
+     * Lazily iterate over all matching records, pageSize records per request.
+     * The next page is prefetched while the current one is consumed.
+     * @param model
+     * @param fields List<String>, id is added when missing
+     * @param domains List of List
+     * @param pageSize
+     * @return OdooRecordIterator
+     */
+    public OdooRecordIterator searchReadIterator(String model, List<String> fields, List<?> domains, int pageSize) {
+        List<String> pageFields = OdooRecordIterator.withId(fields);
+        return new OdooRecordIterator(
+            pageFetcher(model, pageFields, "id asc"),
+            domains,
+            pageSize);
+    }
+
+    /**
+     * Page fetcher of iterators and change feeds: a failed call is thrown, not taken for the last page
+     */
+    private OdooRecordIterator.PageFetcher pageFetcher(String model, List<String> fields, String order) {
+        return (domain, limit) -> {
+            Map<String,Object> kwargs = new HashMap<>();
+            kwargs.put("domain", domain);
+            kwargs.put("fields", fields);
+            kwargs.put("limit", limit);
+            kwargs.put("order", order);
+            OdooRpcResponse response = callKw(model, "search_read", new ArrayList<>(), kwargs);
+            if (!response.isOkay()) {
+                throw new IllegalStateException("search_read of " + model + " failed: " + response.getErrorName());
+            }
+            return response.resultAsRecords();
+        };
+    }
+
+    /**
+     * Stream all matching records, see searchReadIterator
+     */
+    public Stream<Map<String,Object>> searchReadStream(String model, List<String> fields, List<?> domains, int pageSize) {
+        return searchReadIterator(model, fields, domains, pageSize).stream();
+    }
+
+    /**
+     * Records inserted or updated after a watermark, see OdooChangeFeed
+     * @param model
+     * @param fields fields to read, null for all
+     * @param watermark last saved watermark, null for a full sync
+     * @return stream of INSERT/UPDATE events in (write_date, id) order
+     */
+    public Stream<OdooChangeEvent> changesSince(String model, List<String> fields, OdooWatermark watermark) {
+        return changeFeed(model, fields, null, watermark, OdooChangeFeed.DEFAULT_PAGE_SIZE).stream();
+    }
+
+    /**
+     * @param model
+     * @param fields fields to read, null for all
+     * @param domains extra filters, may be null
+     * @param watermark last saved watermark, null for a full sync
+     * @param pageSize records per request
+     * @return change feed, its watermark follows the events read
+     */
+    public OdooChangeFeed changeFeed(String model, List<String> fields, List<?> domains, OdooWatermark watermark,
+        int pageSize) {
+        List<String> syncFields = OdooChangeFeed.withSyncFields(fields);
+        return new OdooChangeFeed(model,
+            pageFetcher(model, syncFields, OdooChangeFeed.ORDER),
+            domains,
+            watermark,
+            pageSize);
+    }
+
+    /**
+     * Delete events for the known ids that no longer exist, archived records are not deleted
+     * @param model
+     * @param knownIds ids synced so far
+     * @return DELETE events
+     */
+    public List<OdooChangeEvent> tombstones(String model, Collection<Integer> knownIds) {
+        return OdooChangeFeed.tombstones(model, knownIds, ids -> {
+            Map<String,Object> searchContext = context == null ? new HashMap<>() : new HashMap<>(context);
+            searchContext.put("active_test", false);
+            Map<String,Object> kwargs = new HashMap<>();
+            kwargs.put("context", searchContext);
+            OdooRpcResponse response = callKw(model, "search",
+                Arrays.asList(Arrays.asList(Arrays.asList("id", "in", ids))), kwargs);
+            if (!response.isOkay()) {
+                throw new IllegalStateException(response.getErrorMessage());
+            }
+            return response.resultAsIntArray();
+        }, OdooChangeFeed.DEFAULT_PAGE_SIZE);
+    }
+
     /**
      * Search record and return list of ids
      * @param model
@@ -234,9 +617,7 @@ public class OdooJSONRpc {
                 Arrays.asList(domains, offset, limit, order, false)
                 );
             if (response.isOkay()){
-                result = response.getResultArray()
-                    .toList().stream()
-                    .map(o -> (Integer) o).collect(Collectors.toList());
+                result = response.resultAsIntArray();
             } 
             return result;
     }
@@ -251,7 +632,7 @@ public class OdooJSONRpc {
         int count = 0;
         OdooRpcResponse response = callKw(model, "search_count", Arrays.asList(domains));
         if (response.isOkay()) {
-            count = response.getJSONObject().getInt("result");
+            count = response.resultAsInt();
         }
         return count;
     }
@@ -287,6 +668,44 @@ public class OdooJSONRpc {
         return result;
     }
 
+    /**
+     * Export records based on filter, in parallel chunks streamed to sink
+     * @param model
+     * @param domains list of list
+     * @param fields list of fields to export (odoo csv header format)
+     * @param sink receives the rows in ids order
+     * @return row count and ids of the chunks that failed
+     * @throws IOException if the search or the sink fails
+     */
+    public OdooExport.Result exportFiltered(String model, List<?> domains, List<String> fields, OdooRowSink sink)
+        throws IOException {
+        // search() answers an empty list on failure, which would look like a complete export
+        OdooRpcResponse response = callKw(model, "search", Arrays.asList(domains));
+        if (!response.isOkay()) {
+            throw new IOException("search of " + model + " failed: " + response.getErrorName());
+        }
+        return partitionedExport(model, fields).run(response.resultAsIntArray(), sink);
+    }
+
+    /**
+     * Chunked, parallel export_data, see OdooExport for tuning
+     * @param model
+     * @param fields list of fields to export (odoo csv header format)
+     */
+    public OdooExport partitionedExport(String model, List<String> fields) {
+        return new OdooExport(ids -> {
+            OdooRpcResponse response = callKw(model, "export_data", Arrays.asList(ids, fields));
+            if (!response.isOkay()) {
+                throw new IllegalStateException(response.getErrorMessage());
+            }
+            List<List<Object>> rows = new ArrayList<>();
+            for (Object row : response.getResultObject().getJSONArray("datas")) {
+                rows.add(((JSONArray) row).toList());
+            }
+            return rows;
+        });
+    }
+
     public String exportByXmlId(String model, List<String> xmlIds, List<String> fields) {
         return exportByXmlId("__import__", model, xmlIds, fields);
     }
@@ -326,7 +745,7 @@ public class OdooJSONRpc {
                 data
             )
         );
-        if (response.isOkay() && response.getResultObject().has("ids")) {
+        if (response.isOkay() && response.getResultObject().optJSONArray("ids") != null) {
            ids = response.getResultObject()
                 .getJSONArray("ids")
                 .toList().stream().mapToInt(id -> (Integer) id)
@@ -335,6 +754,51 @@ public class OdooJSONRpc {
         }
         return ids;
     }
+    /**
+     * Import rows in concurrent chunks, retrying failed chunks by bisection
+     * @param model
+     * @param data list of rows
+     * @param fields
+     * @param parallelism max concurrent load calls
+     * @return imported ids, failed rows and odoo messages
+     */
+    public OdooBulkLoad.Report bulkImport(String model, List<? extends List<?>> data, List<String> fields,
+        int parallelism) {
+        OdooBulkLoad load = bulkLoad(model, fields);
+        load.setParallelism(parallelism);
+        return load.run(data);
+    }
+
+    /**
+     * Chunked, parallel load, see OdooBulkLoad for tuning
+     * @param model
+     * @param fields
+     */
+    @SuppressWarnings("unchecked")
+    public OdooBulkLoad bulkLoad(String model, List<String> fields) {
+        return new OdooBulkLoad(rows -> {
+            OdooRpcResponse response = callKw(model, "load", Arrays.asList(fields, rows));
+            if (!response.isOkay()) {
+                throw new IllegalStateException(response.getErrorMessage());
+            }
+            JSONObject result = response.getResultObject();
+            JSONArray ids = result.optJSONArray("ids");
+            JSONArray messages = result.optJSONArray("messages");
+            List<Map<String,Object>> messageList = new ArrayList<>();
+            if (messages != null) {
+                messages.toList().forEach(message -> messageList.add((Map<String,Object>) message));
+            }
+            List<Integer> idList = null;
+            if (ids != null) {
+                idList = new ArrayList<>();
+                for (int i = 0; i < ids.length(); i++) {
+                    idList.add(ids.getInt(i));
+                }
+            }
+            return new OdooBulkLoad.LoadResult(idList, messageList);
+        });
+    }
+
     /**
      * Create a record and return a non zero id on success
      * @param model
@@ -345,11 +809,44 @@ public class OdooJSONRpc {
         int id = 0;
         OdooRpcResponse response = callKw(model, "create", Arrays.asList(data));
         if (response.isOkay()) {
-            id = response.getJSONObject().getInt("result");
+            id = response.resultAsInt();
         }
         return id;
     }
 
+    /**
+     * Create several records, DEFAULT_CREATE_CHUNK_SIZE per call (odoo 12+)
+     * @param model
+     * @param records list of map
+     * @return ids in records order, shorter than records if a call failed
+     */
+    public List<Integer> createMany(String model, List<? extends Map<String,Object>> records) {
+        return createMany(model, records, DEFAULT_CREATE_CHUNK_SIZE);
+    }
+
+    /**
+     * Create several records, chunkSize per call (odoo 12+)
+     * @param model
+     * @param records list of map
+     * @param chunkSize records per create call
+     * @return ids in records order, shorter than records if a call failed
+     */
+    public List<Integer> createMany(String model, List<? extends Map<String,Object>> records, int chunkSize) {
+        List<Integer> ids = new ArrayList<>(records.size());
+        for (int start = 0; start < records.size(); start += chunkSize) {
+            List<? extends Map<String,Object>> chunk =
+                records.subList(start, Math.min(start + chunkSize, records.size()));
+            OdooRpcResponse response = callKw(model, "create", Arrays.asList(chunk));
+            if (!response.isOkay()) {
+                LOGGER.error("Unable to create records " + start + "-" + (start + chunk.size() - 1) + " of " + model
+                    + ", " + ids.size() + " created");
+                break;
+            }
+            ids.addAll(response.resultAsIntArray());
+        }
+        return ids;
+    }
+
     /**
      * Update records
      * @param model
@@ -361,6 +858,25 @@ public class OdooJSONRpc {
         return response.isOkay();
     }
 
+    /**
+     * Batch record updates, see OdooWriteBatcher. Records refused by odoo are isolated,
+     * a call that failed without an answer fails its whole group.
+     * @return OdooWriteBatcher to close once done
+     */
+    public OdooWriteBatcher writeBatcher() {
+        return new OdooWriteBatcher((model, ids, data) -> {
+            OdooRpcResponse response = callKw(model, "write", Arrays.asList(ids, data));
+            if (response.isOkay()) {
+                return true;
+            }
+            if (response.getStatus() == HttpStatus.SC_OK && response.getJSONObject().has("error")) {
+                // odoo answered with an error for these values
+                return false;
+            }
+            throw new IllegalStateException("Write of " + model + " failed: " + response.getErrorName());
+        });
+    }
+
     /**
      * Delete record
      * @param model
@@ -390,19 +906,87 @@ public class OdooJSONRpc {
      * @param kwargs Map
      */
     public OdooRpcResponse callKw(String model, String method, List<?> args, Map<String,Object> kwargs) {
+        return callKwWith(model, method, args, kwargs, OdooRpcResponse::new);
+    }
+    /**
+     * Execute method in model, streaming the result rows to rowConsumer
+     * instead of buffering them in the response body
+     * @param model String
+     * @param method String
+     * @param args List of List
+     * @param kwargs Map
+     * @param rowConsumer receives every element of the result array
+     * @return response without the streamed rows
+     */
+    public OdooRpcResponse callKw(String model, String method, List<?> args, Map<String,Object> kwargs,
+        Consumer<Object> rowConsumer) {
+        return callKwWith(model, method, args, kwargs, httpResponse -> OdooRpcResponse.streamed(httpResponse, rowConsumer));
+    }
+
+    private OdooRpcResponse callKwWith(String model, String method, List<?> args, Map<String,Object> kwargs,
+        ResponseReader reader) {
         OdooRPCPayload payload = new OdooRPCPayload(
-            model, 
+            model,
             method,
             args,
             kwargs,
             context
             );
-        OdooRpcResponse response = execute(CALLKW_URI, payload);
+        OdooRpcResponse response = execute(CALLKW_URI, payload, reader);
+        invalidateRecords(model, method, args);
         if (!response.isOkay()) {
             LOGGER.warn(response.getErrorMessage());
         }
         return response;
     }
+
+    /**
+     * Execute method in model without blocking the caller
+     * @param model String
+     * @param method String
+     * @param args List of List
+     * @return future response
+     */
+    public CompletableFuture<OdooRpcResponse> callKwAsync(String model, String method, List<?> args) {
+        return callKwAsync(model, method, args, new HashMap<>());
+    }
+
+    /**
+     * Execute method in model without blocking the caller
+     * @param model String
+     * @param method String
+     * @param args List of List
+     * @param kwargs Map
+     * @return future response
+     */
+    public CompletableFuture<OdooRpcResponse> callKwAsync(String model, String method, List<?> args, Map<String,Object> kwargs) {
+        return async(() -> callKw(model, method, args, kwargs));
+    }
+
+    /**
+     * Run any call of this client in the background,
+     * e.g. async(() -> odoo.read(model, fields, ids))
+     * @param call
+     * @return future result
+     */
+    public <T> CompletableFuture<T> async(Supplier<T> call) {
+        return getBoundedExecutor().submit(call);
+    }
+
+    private synchronized OdooBoundedExecutor getBoundedExecutor() {
+        if (boundedExecutor == null) {
+            Executor executor = asyncExecutor;
+            if (executor == null) {
+                if (ownExecutor == null) {
+                    ownExecutor = OdooExecutors.newRpcExecutor("odoo-jsonrpc");
+                }
+                executor = ownExecutor;
+            }
+            boundedExecutor = new OdooBoundedExecutor(executor, maxInFlight);
+        }
+        return boundedExecutor;
+    }
+
     /**
      * Fire RPC request
      * @param uri
@@ -410,29 +994,215 @@ public class OdooJSONRpc {
      * @return OdooRpcResponse 
      */
     private OdooRpcResponse execute(String uri, OdooRPCPayload payload) {
+        return execute(uri, payload, OdooRpcResponse::new);
+    }
+
+    private interface ResponseReader {
+        OdooRpcResponse read(CloseableHttpResponse httpResponse) throws IOException;
+    }
+
+    /**
+     * Fire RPC request
+     * @param uri
+     * @param payload
+     * @param reader builds the response from the http response
+     * @return OdooRpcResponse
+     */
+    private OdooRpcResponse execute(String uri, OdooRPCPayload payload, ResponseReader reader) {
         if (dumpRequest) LOGGER.info("POST " + odooUrl + uri + ": " + payload.toString(2));
+        OdooRpcResponse response = post(uri, payload.getModel(), payload.getMethod(), payload.toString(), reader);
+        if (!AUTH_URI.equals(uri) && SESSION_EXPIRED.equals(response.getErrorName()) && relogin(database)) {
+            response = post(uri, payload.getModel(), payload.getMethod(), payload.toString(), reader);
+        }
+        if (dumpRequest) {
+            LOGGER.info(String.format("RESPONSE - Code %d, Body: %s", response.getStatus(), response.getBody()));
+        }
+        return response;
+    }
+
+    /**
+     * Send several call_kw payloads as one JSON-RPC 2.0 batch (json array)
+     * @param payloads
+     * @return raw response, its body is a json array when the server supports batches
+     */
+    OdooRpcResponse executeBatch(List<OdooRPCPayload> payloads) {
+        JSONArray batch = new JSONArray();
+        payloads.forEach(payload -> batch.put(payload.toJSONObject()));
+        if (dumpRequest) LOGGER.info("POST " + odooUrl + CALLKW_URI + ": " + batch.toString(2));
+        OdooRpcResponse response = post(CALLKW_URI, OdooMetrics.NONE, "batch", batch.toString(),
+            OdooRpcResponse::new);
+        payloads.forEach(payload -> invalidateRecords(payload.getModel(), payload.getMethod(), payload.getArgs()));
+        if (dumpRequest) {
+            LOGGER.info(String.format("RESPONSE - Code %d, Body: %s", response.getStatus(), response.getBody()));
+        }
+        return response;
+    }
+
+    /**
+     * Execute a prepared call_kw payload
+     * @param payload
+     * @return OdooRpcResponse
+     */
+    OdooRpcResponse execute(OdooRPCPayload payload) {
+        OdooRpcResponse response = execute(CALLKW_URI, payload);
+        invalidateRecords(payload.getModel(), payload.getMethod(), payload.getArgs());
+        if (!response.isOkay()) {
+            LOGGER.warn(response.getErrorMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Drop cached records targeted by a write or unlink, whatever its outcome
+     */
+    private void invalidateRecords(String model, String method, List<?> args) {
+        OdooRecordCache cache = recordCache;
+        if (cache != null) {
+            cache.invalidate(model, method, args);
+        }
+    }
+
+    /**
+     * Send with retries and circuit breaker when set
+     */
+    private OdooRpcResponse post(String uri, String model, String method, String body, ResponseReader reader) {
+        model = model == null ? OdooMetrics.NONE : model;
+        method = method == null ? OdooMetrics.NONE : method;
+        OdooRetryPolicy retryPolicy = this.retryPolicy;
+        OdooCircuitBreaker circuitBreaker = this.circuitBreaker;
+        for (int attempt = 1;; attempt++) {
+            if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+                LOGGER.warn(String.format("Circuit open for %s, %s.%s not sent", circuitBreaker.getName(), model, method));
+                return OdooRpcResponse.failed("circuit_open");
+            }
+            OdooRpcResponse response;
+            // a runtime exception (reader, tracer sink) counts as a failure so the probe is released
+            boolean transientFailure = true;
+            try {
+                response = send(uri, model, method, body, reader);
+                transientFailure = response.failure != null
+                    || OdooRetryPolicy.isTransientStatus(response.getStatus());
+            } finally {
+                if (circuitBreaker != null) {
+                    if (transientFailure) circuitBreaker.onFailure();
+                    else circuitBreaker.onSuccess();
+                }
+            }
+            if (!transientFailure || retryPolicy == null
+                    || !retryPolicy.shouldRetry(method, attempt, response.failure, response.getStatus())) {
+                return response;
+            }
+            long delay = retryPolicy.delayMillis(attempt, response.retryAfter);
+            if (delay < 0 || !OdooRetryPolicy.sleep(delay)) {
+                return response;
+            }
+            LOGGER.info(String.format("Retrying %s.%s (%s), attempt %d", model, method, response.getErrorName(),
+                attempt + 1));
+        }
+    }
+
+    private OdooRpcResponse send(String uri, String model, String method, String body, ResponseReader reader) {
+        OdooMetrics metrics = this.metrics;
+        OdooTracer tracer = this.tracer;
+        OdooTracer.Span span = tracer == null ? null : tracer.start(uri, model, method);
+        boolean measured = metrics != OdooMetrics.NOOP || span != null;
+        long requestBytes = -1;
+        CountingInputStream[] responseStream = new CountingInputStream[1];
+        String error = null;
+        if (measured) metrics.callStarted(uri, model, method);
+        long start = System.nanoTime();
         OdooRpcResponse response = new OdooRpcResponse();
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            StringEntity requestEntity = new StringEntity(payload.toString(), "UTF-8");
+        try {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            if (span != null) span.request(bytes);
+            HttpEntity requestEntity = httpClientConfig.createRequestEntity(bytes, ContentType.APPLICATION_JSON);
+            requestBytes = requestEntity.getContentLength();
             HttpPost httpPost = new HttpPost(odooUrl + uri);
             httpPost.setEntity(requestEntity);
             httpPost.setConfig(requestConfig);
-            httpPost.setHeader(HttpHeaders.CONTENT_TYPE, "application/json");
-            httpPost.setHeader(HttpHeaders.CONTENT_ENCODING, "utf8");
             httpPost.setHeader(HttpHeaders.ACCEPT, "application/json");
 
-            CloseableHttpResponse httpResponse = httpClient.execute(httpPost,httpContext);
-            response = new OdooRpcResponse(httpResponse);
+            HttpClientContext httpContext = HttpClientContext.create();
+            httpContext.setCookieStore(cookieStore);
+            try (CloseableHttpResponse httpResponse = getHttpClient().execute(httpPost, httpContext)) {
+                if (measured && httpResponse.getEntity() != null) {
+                    httpResponse.setEntity(new HttpEntityWrapper(httpResponse.getEntity()) {
+                        @Override
+                        public InputStream getContent() throws IOException {
+                            InputStream content = super.getContent();
+                            responseStream[0] = new CountingInputStream(
+                                span == null ? content : span.teeResponse(content));
+                            return responseStream[0];
+                        }
+                    });
+                }
+                response = reader.read(httpResponse);
+                if (httpResponse.getFirstHeader(HttpHeaders.RETRY_AFTER) != null) {
+                    response.retryAfter = httpResponse.getFirstHeader(HttpHeaders.RETRY_AFTER).getValue();
+                }
+            }
 
-        } catch (UnsupportedEncodingException e) {
-            LOGGER.error("Unparseable json payload", e);
         } catch (IOException e) {
+            error = e.getClass().getName();
+            response.failure = e;
             LOGGER.error("Http communication error", e);
-        } 
-        if (dumpRequest) {
-            LOGGER.info(String.format("RESPONSE - Code %d, Body: %s", response.getStatus(), response.getBody()));
+        } finally {
+            if (measured) {
+                if (error == null) {
+                    error = response.getErrorName();
+                }
+                metrics.callFinished(uri, model, method, System.nanoTime() - start, requestBytes,
+                    responseStream[0] == null ? 0 : responseStream[0].getCount(), error);
+                if (span != null) span.finish(error);
+            }
         }
         return response;
     }
 
+    /**
+     * Pooled client shared by every call of this instance
+     */
+    private synchronized CloseableHttpClient getHttpClient() {
+        if (httpClient == null) {
+            connectionManager = httpClientConfig.createConnectionManager();
+            httpClient = httpClientConfig.createHttpClient(connectionManager);
+        }
+        return httpClient;
+    }
+
+    /**
+     * Connection pool usage, null until the first call
+     * @return PoolStats
+     */
+    public synchronized PoolStats getPoolStats() {
+        return connectionManager == null ? null : connectionManager.getTotalStats();
+    }
+
+    private synchronized void closeHttpClient() {
+        if (httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                LOGGER.warn("Error while closing http client", e);
+            }
+            httpClient = null;
+            connectionManager = null;
+        }
+    }
+
+    /**
+     * Release pooled connections and the owned async executor.
+     * The instance can still be used, they are reopened on next call.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+                ownExecutor = null;
+                boundedExecutor = null;
+            }
+        }
+        closeHttpClient();
+    }
 }
@@ -0,0 +1,141 @@
+package com.navds;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Collect many call_kw invocations and send them together.
+ * Every call gets a unique JSON-RPC id, responses are matched back by id.
+ *
+ * By default calls are pipelined over the pooled connections of the client
+ * (odoo web controllers accept one call per request). When arrayBatch is set,
+ * calls are sent as JSON-RPC 2.0 array batches of maxBatchSize calls, for
+ * servers or proxies supporting them; a non array answer falls back to pipelining.
+ *
+ * OdooJSONRpcBatch batch = new OdooJSONRpcBatch(odoo);
+ * ids.forEach(id -&gt; batch.add("res.partner", "write", Arrays.asList(Arrays.asList(id), values.get(id))));
+ * Map&lt;Integer, OdooRpcResponse&gt; responses = batch.execute();
+ */
+public class OdooJSONRpcBatch {
+    private final static Log LOGGER = LogFactory.getLog(OdooJSONRpcBatch.class);
+    private final OdooJSONRpc odoo;
+    private final List<OdooRPCPayload> calls = new ArrayList<>();
+    private boolean arrayBatch = false;
+    private int maxBatchSize = 100;
+
+    public OdooJSONRpcBatch(OdooJSONRpc odoo) {
+        this.odoo = odoo;
+    }
+
+    /**
+     * Send calls as JSON-RPC 2.0 array batches
+     * @param arrayBatch
+     */
+    public void setArrayBatch(boolean arrayBatch) {
+        this.arrayBatch = arrayBatch;
+    }
+    public boolean isArrayBatch() {
+        return this.arrayBatch;
+    }
+    /**
+     * Max calls per array batch request
+     * @param maxBatchSize
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+    public int getMaxBatchSize() {
+        return this.maxBatchSize;
+    }
+
+    /**
+     * Queue a call
+     * @param model String
+     * @param method String
+     * @param args List of List
+     * @return call id, key of its response
+     */
+    public int add(String model, String method, List<?> args) {
+        return add(model, method, args, new HashMap<>());
+    }
+
+    /**
+     * Queue a call
+     * @param model String
+     * @param method String
+     * @param args List of List
+     * @param kwargs Map
+     * @return call id, key of its response
+     */
+    public synchronized int add(String model, String method, List<?> args, Map<String,Object> kwargs) {
+        OdooRPCPayload payload = new OdooRPCPayload(model, method, args, kwargs, odoo.getContext());
+        calls.add(payload);
+        return payload.getId();
+    }
+
+    public synchronized int size() {
+        return calls.size();
+    }
+
+    /**
+     * Send queued calls and empty the batch
+     * @return responses by call id, in call order
+     */
+    public Map<Integer, OdooRpcResponse> execute() {
+        List<OdooRPCPayload> pending;
+        synchronized (this) {
+            pending = new ArrayList<>(calls);
+            calls.clear();
+        }
+        Map<Integer, OdooRpcResponse> responses = new LinkedHashMap<>();
+        pending.forEach(payload -> responses.put(payload.getId(), null));
+        if (arrayBatch) {
+            List<CompletableFuture<Map<Integer, OdooRpcResponse>>> chunks = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i += maxBatchSize) {
+                List<OdooRPCPayload> chunk = pending.subList(i, Math.min(i + maxBatchSize, pending.size()));
+                chunks.add(odoo.async(() -> sendArray(chunk)));
+            }
+            chunks.forEach(chunk -> responses.putAll(chunk.join()));
+        }
+        List<OdooRPCPayload> remaining = new ArrayList<>();
+        pending.forEach(payload -> {
+            if (responses.get(payload.getId()) == null) {
+                remaining.add(payload);
+            }
+        });
+        List<CompletableFuture<OdooRpcResponse>> futures = new ArrayList<>();
+        remaining.forEach(payload -> futures.add(odoo.async(() -> odoo.execute(payload))));
+        for (int i = 0; i < remaining.size(); i++) {
+            responses.put(remaining.get(i).getId(), futures.get(i).join());
+        }
+        return responses;
+    }
+
+    /**
+     * @return responses of the chunk by id, empty if the server does not support array batches
+     */
+    private Map<Integer, OdooRpcResponse> sendArray(List<OdooRPCPayload> chunk) {
+        Map<Integer, OdooRpcResponse> responses = new HashMap<>();
+        OdooRpcResponse response = odoo.executeBatch(chunk);
+        try {
+            JSONArray items = new JSONArray(response.getBody());
+            for (int i = 0; i < items.length(); i++) {
+                JSONObject item = items.getJSONObject(i);
+                responses.put(item.getInt("id"), new OdooRpcResponse(response.getStatus(), item.toString()));
+            }
+        } catch (JSONException e) {
+            LOGGER.warn("Array batch not supported by server, falling back to pipelined calls. " + e.getMessage());
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,150 @@
+package com.navds;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.function.Consumer;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * Pull parser for JSON-RPC responses.
+ * Tokenizes the body straight from the stream and hands every element of
+ * the result array (or of result.records for /web/dataset/search_read)
+ * to a consumer one at a time, so a big result is never held in memory.
+ */
+public class OdooJsonStreamParser {
+    private final Consumer<Object> rowConsumer;
+    private int rowCount = 0;
+
+    /**
+     * @param rowConsumer receives Map for objects, List for arrays, null for json null
+     */
+    public OdooJsonStreamParser(Consumer<Object> rowConsumer) {
+        this.rowConsumer = rowConsumer;
+    }
+
+    /**
+     * @return number of rows handed to the consumer
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * Parse the response envelope, streamed rows are left out of the returned object
+     * @param stream
+     * @param charset
+     * @return envelope with an empty result array / records array
+     * @throws JSONException on malformed json
+     */
+    public JSONObject parse(InputStream stream, Charset charset) throws IOException {
+        try (Reader reader = new InputStreamReader(stream, charset)) {
+            return parse(new JSONTokener(reader));
+        }
+    }
+
+    private JSONObject parse(JSONTokener tokener) {
+        JSONObject envelope = new JSONObject();
+        if (tokener.nextClean() != '{') {
+            throw tokener.syntaxError("A JSON-RPC response must begin with '{'");
+        }
+        if (tokener.nextClean() == '}') {
+            return envelope;
+        }
+        tokener.back();
+        while (true) {
+            String key = tokener.nextValue().toString();
+            if (tokener.nextClean() != ':') {
+                throw tokener.syntaxError("Expected a ':' after a key");
+            }
+            if ("result".equals(key)) {
+                envelope.put(key, parseResult(tokener));
+            } else {
+                envelope.put(key, tokener.nextValue());
+            }
+            char c = tokener.nextClean();
+            if (c == '}') {
+                return envelope;
+            }
+            if (c != ',') {
+                throw tokener.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    private Object parseResult(JSONTokener tokener) {
+        char c = tokener.nextClean();
+        if (c == '[') {
+            streamArray(tokener);
+            return new JSONArray();
+        }
+        tokener.back();
+        if (c != '{') {
+            return tokener.nextValue();
+        }
+        // search_read route answers {"length": n, "records": [...]}
+        tokener.nextClean();
+        JSONObject result = new JSONObject();
+        if (tokener.nextClean() == '}') {
+            return result;
+        }
+        tokener.back();
+        while (true) {
+            String key = tokener.nextValue().toString();
+            if (tokener.nextClean() != ':') {
+                throw tokener.syntaxError("Expected a ':' after a key");
+            }
+            if ("records".equals(key) && tokener.nextClean() == '[') {
+                streamArray(tokener);
+                result.put(key, new JSONArray());
+            } else {
+                if ("records".equals(key)) {
+                    tokener.back();
+                }
+                result.put(key, tokener.nextValue());
+            }
+            char next = tokener.nextClean();
+            if (next == '}') {
+                return result;
+            }
+            if (next != ',') {
+                throw tokener.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    // called after '[' has been read
+    private void streamArray(JSONTokener tokener) {
+        if (tokener.nextClean() == ']') {
+            return;
+        }
+        tokener.back();
+        while (true) {
+            rowCount++;
+            rowConsumer.accept(toJava(tokener.nextValue()));
+            char c = tokener.nextClean();
+            if (c == ']') {
+                return;
+            }
+            if (c != ',') {
+                throw tokener.syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    private static Object toJava(Object value) {
+        if (value instanceof JSONObject) {
+            return ((JSONObject) value).toMap();
+        }
+        if (value instanceof JSONArray) {
+            return ((JSONArray) value).toList();
+        }
+        return JSONObject.NULL.equals(value) ? null : value;
+    }
+}
@@ -0,0 +1,147 @@
+package com.navds;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe, size bounded LRU cache whose entries expire after a per entry time to live
+ */
+public class OdooLruCache<K, V> {
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maxSize;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxSize least recently used entries are evicted above it
+     */
+    public OdooLruCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > OdooLruCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param key
+     * @return cached value or null if missing or expired
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value;
+        }
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @param ttlMillis time to live, the value is not cached if not positive
+     */
+    public void put(K key, V value, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    /**
+     * Cached value, or the one built by loader and cached if missing or expired.
+     * Not counted in hits and misses.
+     * @param key
+     * @param loader
+     * @param ttlMillis time to live of a new value, it is not cached if not positive
+     * @return value
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader, long ttlMillis) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                return entry.value;
+            }
+            V value = loader.apply(key);
+            if (ttlMillis > 0) {
+                entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+            } else if (entry != null) {
+                entries.remove(key);
+            }
+            return value;
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Remove every entry whose key matches
+     * @param predicate
+     */
+    public void invalidateIf(Predicate<? super K> predicate) {
+        synchronized (entries) {
+            Iterator<K> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (predicate.test(keys.next())) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+}
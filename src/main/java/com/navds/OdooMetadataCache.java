@@ -0,0 +1,121 @@
+package com.navds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Cache of fields_get answers keyed by (server, db, uid, lang, model, attributes):
+ * labels are translated and fields are filtered by the access rights of the user.
+ * Opt-in: set it on a client, a new instance or the one shared by the JVM (getShared).
+ * A cached answer misses module installs and field changes until it expires or invalidate is called.
+ */
+public class OdooMetadataCache {
+    private final static OdooMetadataCache SHARED = new OdooMetadataCache();
+    public final static long DEFAULT_TTL_MILLIS = 10 * 60 * 1000;
+    public final static int DEFAULT_MAX_SIZE = 1000;
+
+    private final OdooLruCache<List<Object>, Map<String, Object>> cache;
+    private volatile long ttlMillis;
+
+    public OdooMetadataCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * @param maxSize max number of cached models
+     * @param ttlMillis time a fields_get answer is kept
+     */
+    public OdooMetadataCache(int maxSize, long ttlMillis) {
+        this.cache = new OdooLruCache<>(maxSize);
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Instance that clients may share, none uses it unless set with setMetadataCache
+     */
+    public static OdooMetadataCache getShared() {
+        return SHARED;
+    }
+
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public long getTtlMillis() {
+        return this.ttlMillis;
+    }
+
+    private static List<Object> key(String server, String db, int uid, String lang, String model,
+            List<String> attributes) {
+        List<String> sortedAttributes = attributes == null ? Collections.emptyList() : new ArrayList<>(attributes);
+        Collections.sort(sortedAttributes);
+        return Arrays.asList(server, db, uid, lang, model, sortedAttributes);
+    }
+
+    /**
+     * Cached fields_get answer, loaded on miss. Empty answers (failures) are not cached.
+     * @param server odoo url
+     * @param db
+     * @param uid logged in user
+     * @param lang context language, may be null
+     * @param model
+     * @param attributes requested field attributes
+     * @param loader calls fields_get
+     * @return map field -&gt; attributes, a copy the caller may modify
+     */
+    public Map<String, Object> fieldsGet(String server, String db, int uid, String lang, String model,
+            List<String> attributes, Supplier<Map<String, Object>> loader) {
+        List<Object> key = key(server, db, uid, lang, model, attributes);
+        Map<String, Object> fields = cache.get(key);
+        if (fields == null) {
+            fields = loader.get();
+            if (fields == null || fields.isEmpty()) {
+                return fields;
+            }
+            fields = copy(fields);
+            cache.put(key, fields, ttlMillis);
+        }
+        return copy(fields);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> copy(Map<String, Object> fields) {
+        Map<String, Object> copy = new HashMap<>(fields.size() * 2);
+        fields.forEach((name, attributes) -> copy.put(name,
+            attributes instanceof Map ? new HashMap<>((Map<String, Object>) attributes) : attributes));
+        return copy;
+    }
+
+    /**
+     * Forget a model of a database, e.g. after installing a module
+     */
+    public void invalidate(String server, String db, String model) {
+        cache.invalidateIf(key -> Objects.equals(key.get(0), server) && Objects.equals(key.get(1), db)
+            && Objects.equals(key.get(4), model));
+    }
+
+    /**
+     * Forget every model of a database
+     */
+    public void invalidate(String server, String db) {
+        cache.invalidateIf(key -> Objects.equals(key.get(0), server) && Objects.equals(key.get(1), db));
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+}
@@ -0,0 +1,54 @@
+package com.navds;
+
+import java.util.function.Supplier;
+
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Instrumentation of odoo calls, set on a client with setMetrics.
+ * Every call reports callStarted then callFinished from the calling thread.
+ * Endpoint is the url path (/web/dataset/call_kw, /xmlrpc/2/object...), model and
+ * method are "none" when the call is not a model method (login, version...).
+ * See OdooMicrometerMetrics for a Micrometer implementation.
+ */
+public interface OdooMetrics {
+    String NONE = "none";
+
+    /**
+     * Records nothing, default of both clients
+     */
+    OdooMetrics NOOP = new OdooMetrics() {
+    };
+
+    /**
+     * A request is about to be sent
+     * @param endpoint
+     * @param model
+     * @param method
+     */
+    default void callStarted(String endpoint, String model, String method) {
+    }
+
+    /**
+     * A call completed, successfully or not
+     * @param endpoint
+     * @param model
+     * @param method
+     * @param durationNanos from callStarted to the response being read
+     * @param requestBytes body sent, as written on the wire
+     * @param responseBytes body read, after decompression
+     * @param error odoo exception name (odoo.exceptions.UserError...), http_STATUS, or the
+     * java exception name of a communication failure. null on success
+     */
+    default void callFinished(String endpoint, String model, String method, long durationNanos,
+            long requestBytes, long responseBytes, String error) {
+    }
+
+    /**
+     * Called once by setMetrics so the connection pool of the client can be observed
+     * @param client name of the client
+     * @param stats pool usage, returns null until the pool is opened
+     */
+    default void bindPool(String client, Supplier<PoolStats> stats) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.navds;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.apache.http.pool.PoolStats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * OdooMetrics recording to a Micrometer registry (micrometer-core is an optional dependency):
+ * <ul>
+ * <li>odoo.rpc timer (percentile histogram) tagged endpoint, model, method and outcome</li>
+ * <li>odoo.rpc.request.bytes and odoo.rpc.response.bytes summaries tagged endpoint, model, method</li>
+ * <li>odoo.rpc.errors counter tagged endpoint, model, method and exception</li>
+ * <li>odoo.rpc.in.flight gauge</li>
+ * <li>odoo.pool.leased, odoo.pool.available, odoo.pool.pending and odoo.pool.max gauges tagged client</li>
+ * </ul>
+ */
+public class OdooMicrometerMetrics implements OdooMetrics {
+    private final MeterRegistry registry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<List<String>, CallMeters> meters = new ConcurrentHashMap<>();
+    private final Map<List<String>, Counter> errors = new ConcurrentHashMap<>();
+
+    private static class CallMeters {
+        private Timer success;
+        private Timer failure;
+        private DistributionSummary requestBytes;
+        private DistributionSummary responseBytes;
+    }
+
+    public OdooMicrometerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("odoo.rpc.in.flight", inFlight, AtomicInteger::get)
+            .description("Odoo calls waiting for their response")
+            .register(registry);
+    }
+
+    @Override
+    public void callStarted(String endpoint, String model, String method) {
+        inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void callFinished(String endpoint, String model, String method, long durationNanos,
+            long requestBytes, long responseBytes, String error) {
+        inFlight.decrementAndGet();
+        CallMeters call = meters.computeIfAbsent(Arrays.asList(endpoint, model, method), this::newCallMeters);
+        (error == null ? call.success : call.failure).record(durationNanos, TimeUnit.NANOSECONDS);
+        if (requestBytes >= 0) {
+            call.requestBytes.record(requestBytes);
+        }
+        call.responseBytes.record(responseBytes);
+        if (error != null) {
+            errors.computeIfAbsent(Arrays.asList(endpoint, model, method, error),
+                key -> Counter.builder("odoo.rpc.errors")
+                    .tags(tags(key))
+                    .tag("exception", error)
+                    .register(registry))
+                .increment();
+        }
+    }
+
+    private CallMeters newCallMeters(List<String> key) {
+        Tags tags = tags(key);
+        CallMeters call = new CallMeters();
+        call.success = timer(tags.and("outcome", "success"));
+        call.failure = timer(tags.and("outcome", "error"));
+        call.requestBytes = DistributionSummary.builder("odoo.rpc.request.bytes")
+            .baseUnit("bytes").tags(tags).register(registry);
+        call.responseBytes = DistributionSummary.builder("odoo.rpc.response.bytes")
+            .baseUnit("bytes").tags(tags).register(registry);
+        return call;
+    }
+
+    private Timer timer(Tags tags) {
+        return Timer.builder("odoo.rpc")
+            .description("Odoo call latency")
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static Tags tags(List<String> key) {
+        return Tags.of("endpoint", key.get(0), "model", key.get(1), "method", key.get(2));
+    }
+
+    @Override
+    public void bindPool(String client, Supplier<PoolStats> stats) {
+        poolGauge("odoo.pool.leased", client, stats, PoolStats::getLeased);
+        poolGauge("odoo.pool.available", client, stats, PoolStats::getAvailable);
+        poolGauge("odoo.pool.pending", client, stats, PoolStats::getPending);
+        poolGauge("odoo.pool.max", client, stats, PoolStats::getMax);
+    }
+
+    private void poolGauge(String name, String client, Supplier<PoolStats> stats, ToIntFunction<PoolStats> value) {
+        Gauge.builder(name, stats, supplier -> {
+            PoolStats current = supplier.get();
+            return current == null ? 0 : value.applyAsInt(current);
+        }).tag("client", client).strongReference(true).register(registry);
+    }
+}
@@ -6,6 +6,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class OdooRPCPayload  
 {
@@ -14,7 +15,9 @@ public class OdooRPCPayload
      */
     private final static String RPC_VERSION = "2.0";
     private final static String RPC_METHOD = "call";
-    private int id = 2;
+    private final static AtomicInteger NEXT_ID = new AtomicInteger();
+    // unique per JVM so responses of a batch can be matched back to their call
+    private int id = NEXT_ID.incrementAndGet() & Integer.MAX_VALUE;
     private Map<String,Object> context = new HashMap<String,Object>();
     private Map<String,Object> params = new HashMap<String,Object>();
     private Map<String,Object> payload = new HashMap<String,Object>();
@@ -25,6 +28,7 @@ public class OdooRPCPayload
 
     public void setId(int id) {
         this.id = id;
+        this.payload.put("id", id);
     }
     public int getId() {
         return this.id;
@@ -77,6 +81,9 @@ public class OdooRPCPayload
         if (context != null && context instanceof Map){
             this.context = (HashMap<String,Object>) context;
         }
+        if (params.get("model") instanceof String) {
+            this.model = (String) params.get("model");
+        }
         build(false);
     }
 
@@ -98,7 +105,23 @@ public class OdooRPCPayload
     }
 
     public String toString() {
-        return new JSONObject(this.payload).toString();
+        return toJSONObject().toString();
+    }
+
+    public JSONObject toJSONObject() {
+        return new JSONObject(this.payload);
+    }
+
+    public String getModel() {
+        return this.model;
+    }
+
+    public String getMethod() {
+        return this.method;
+    }
+
+    public List<?> getArgs() {
+        return this.args;
     }
 
     public String toString(int indent) {
@@ -0,0 +1,202 @@
+package com.navds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in read-through cache of records keyed by (model, id, fields).
+ * Each record is one LRU entry holding its reads by field set, so a write drops
+ * its records without scanning the cache. The reads of a record expire together.
+ * Records written or deleted through the client owning the cache are invalidated,
+ * changes made by others are seen once the entry expires. A read that started before
+ * an invalidation of its model is not cached, see getGeneration.
+ */
+public class OdooRecordCache {
+    public final static long DEFAULT_TTL_MILLIS = 60 * 1000;
+    public final static int DEFAULT_MAX_SIZE = 10000;
+
+    // (model, id) -> field set -> record
+    private final OdooLruCache<List<Object>, Map<Set<String>, Map<String, Object>>> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Map<String, Long> modelTtl = new ConcurrentHashMap<>();
+    // bumped by every invalidation of the model, before its entries are removed
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private volatile long ttlMillis;
+
+    public OdooRecordCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * @param maxSize max number of cached records
+     * @param ttlMillis default time a record is kept
+     */
+    public OdooRecordCache(int maxSize, long ttlMillis) {
+        this.cache = new OdooLruCache<>(maxSize);
+        this.ttlMillis = ttlMillis;
+    }
+
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Time to live of the records of one model, 0 to never cache it
+     * @param model
+     * @param ttlMillis
+     */
+    public void setTtlMillis(String model, long ttlMillis) {
+        modelTtl.put(model, ttlMillis);
+    }
+
+    public long getTtlMillis(String model) {
+        Long ttl = modelTtl.get(model);
+        return ttl == null ? ttlMillis : ttl;
+    }
+
+    private static List<Object> key(String model, int id) {
+        return Arrays.asList(model, id);
+    }
+
+    private static Set<String> fieldSet(Collection<String> fields) {
+        return fields == null ? Collections.emptySet() : new HashSet<>(fields);
+    }
+
+    /**
+     * @param model
+     * @param id
+     * @param fields null or empty for all fields
+     * @return copy of the cached record, null on miss
+     */
+    public Map<String, Object> get(String model, int id, Collection<String> fields) {
+        Map<Set<String>, Map<String, Object>> reads = cache.get(key(model, id));
+        Map<String, Object> record = reads == null ? null : reads.get(fieldSet(fields));
+        if (record == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new HashMap<>(record);
+    }
+
+    private AtomicLong generationOf(String model) {
+        return generations.computeIfAbsent(model, m -> new AtomicLong());
+    }
+
+    /**
+     * Invalidation generation of a model, to take before reading records given to put
+     * @param model
+     * @return generation
+     */
+    public long getGeneration(String model) {
+        return generationOf(model).get();
+    }
+
+    /**
+     * Cache a record read with the given fields, it must contain its id
+     * @param model
+     * @param fields null or empty for all fields
+     * @param record
+     */
+    public void put(String model, Collection<String> fields, Map<String, Object> record) {
+        put(model, fields, record, getGeneration(model));
+    }
+
+    /**
+     * Cache a record unless its model was invalidated since the read started
+     * @param model
+     * @param fields null or empty for all fields
+     * @param record
+     * @param generation getGeneration(model) taken before the read
+     */
+    public void put(String model, Collection<String> fields, Map<String, Object> record, long generation) {
+        Object id = record.get("id");
+        AtomicLong current = generationOf(model);
+        if (!(id instanceof Number) || current.get() != generation) {
+            return;
+        }
+        Set<String> fieldSet = fieldSet(fields);
+        Map<String, Object> copy = new HashMap<>(record);
+        Map<Set<String>, Map<String, Object>> reads = cache.computeIfAbsent(key(model, ((Number) id).intValue()),
+            key -> new ConcurrentHashMap<>(), getTtlMillis(model));
+        reads.put(fieldSet, copy);
+        // an invalidation running meanwhile may have removed the entry before this put
+        if (current.get() != generation) {
+            reads.remove(fieldSet, copy);
+        }
+    }
+
+    public void invalidate(String model, Collection<Integer> ids) {
+        generationOf(model).incrementAndGet();
+        for (Integer id : ids) {
+            cache.invalidate(key(model, id));
+        }
+    }
+
+    public void invalidate(String model) {
+        generationOf(model).incrementAndGet();
+        cache.invalidateIf(key -> key.get(0).equals(model));
+    }
+
+    public void invalidateAll() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        cache.clear();
+    }
+
+    /**
+     * Invalidate the records targeted by a write or unlink call
+     * @param model
+     * @param method
+     * @param args call arguments, the first one holding an id or a list of ids
+     */
+    public void invalidate(String model, String method, List<?> args) {
+        if (!"write".equals(method) && !"unlink".equals(method)) {
+            return;
+        }
+        if (args == null || args.isEmpty()) {
+            invalidate(model);
+            return;
+        }
+        Object target = args.get(0);
+        List<Integer> ids = new ArrayList<>();
+        if (target instanceof Number) {
+            ids.add(((Number) target).intValue());
+        } else if (target instanceof Collection || target instanceof Object[]) {
+            Collection<?> items = target instanceof Collection ? (Collection<?>) target : Arrays.asList((Object[]) target);
+            for (Object item : items) {
+                if (item instanceof Number) {
+                    ids.add(((Number) item).intValue());
+                }
+            }
+        } else {
+            invalidate(model);
+            return;
+        }
+        invalidate(model, ids);
+    }
+
+    /**
+     * @return number of cached records
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+}
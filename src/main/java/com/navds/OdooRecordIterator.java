@@ -0,0 +1,133 @@
+package com.navds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy iterator over search_read results, paged by keyset (id &gt; last id, ordered by id).
+ * The next page is fetched in the background while the current one is consumed,
+ * so at most two pages are held in memory whatever the table size.
+ * A failed page fetch is thrown by hasNext/next, it never looks like the end of data.
+ */
+public class OdooRecordIterator implements Iterator<Map<String, Object>>, AutoCloseable {
+    private final static ExecutorService PREFETCH_EXECUTOR = OdooExecutors.newRpcExecutor("odoo-prefetch");
+    public final static int DEFAULT_PAGE_SIZE = 1000;
+
+    /**
+     * Fetch up to limit records matching domain, ordered by id ascending.
+     * Throws when the call fails: an empty or short page ends the iteration.
+     */
+    public interface PageFetcher {
+        List<Map<String, Object>> fetch(List<Object> domain, int limit);
+    }
+
+    private final PageFetcher fetcher;
+    private final List<?> domain;
+    private final int pageSize;
+    private final Executor executor;
+    private Iterator<Map<String, Object>> current = Collections.emptyIterator();
+    private CompletableFuture<List<Map<String, Object>>> next;
+    private boolean closed = false;
+
+    public OdooRecordIterator(PageFetcher fetcher, List<?> domain, int pageSize) {
+        this(fetcher, domain, pageSize, PREFETCH_EXECUTOR);
+    }
+
+    public OdooRecordIterator(PageFetcher fetcher, List<?> domain, int pageSize, Executor executor) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        this.fetcher = fetcher;
+        this.domain = domain == null ? Collections.emptyList() : domain;
+        this.pageSize = pageSize;
+        this.executor = executor;
+        this.next = prefetch(0);
+    }
+
+    private CompletableFuture<List<Map<String, Object>>> prefetch(int lastId) {
+        List<Object> pageDomain = new ArrayList<>(domain);
+        if (lastId > 0) {
+            pageDomain.add(Arrays.asList("id", ">", lastId));
+        }
+        return CompletableFuture.supplyAsync(() -> fetcher.fetch(pageDomain, pageSize), executor);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (next == null || closed) {
+                return false;
+            }
+            List<Map<String, Object>> page;
+            try {
+                page = next.join();
+            } catch (CompletionException e) {
+                next = null;
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+            next = null;
+            if (page.size() >= pageSize) {
+                next = prefetch(((Number) page.get(page.size() - 1).get("id")).intValue());
+            }
+            current = page.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * Stop paging, a page being prefetched is discarded
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+        current = Collections.emptyIterator();
+    }
+
+    /**
+     * @return sequential stream, closing it stops the paging
+     */
+    public Stream<Map<String, Object>> stream() {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(this::close);
+    }
+
+    /**
+     * Fields used for paging must contain id
+     * @param fields
+     * @return fields with id
+     */
+    static List<String> withId(List<String> fields) {
+        if (fields == null || fields.isEmpty() || fields.contains("id")) {
+            return fields;
+        }
+        List<String> result = new ArrayList<>(fields);
+        result.add("id");
+        return result;
+    }
+}
@@ -0,0 +1,225 @@
+package com.navds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Coalesce reads by id: loads of the same (model, fields) queued within
+ * windowMillis, or until maxBatchSize ids are queued, become a single read([...ids]).
+ * Coalescing only helps concurrent callers: get reads at once when no other load is pending,
+ * so a sequential loop does not wait for the window. When a batch read fails its ids are
+ * read one by one, an unreadable record only fails its own loads.
+ *
+ * OdooRecordLoader loader = new OdooRecordLoader(odoo::readRecords);
+ * List&lt;CompletableFuture&lt;Map&gt;&gt; partners = ids.stream()
+ *     .map(id -&gt; loader.load("res.partner", id, fields)).collect(Collectors.toList());
+ */
+public class OdooRecordLoader {
+    private final static Log LOGGER = LogFactory.getLog(OdooRecordLoader.class);
+    private final static ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(
+            OdooExecutors.daemonThreadFactory("odoo-loader-timer"));
+    private final static ExecutorService LOADER_EXECUTOR = OdooExecutors.newRpcExecutor("odoo-loader");
+    public final static long DEFAULT_WINDOW_MILLIS = 2;
+    public final static int DEFAULT_MAX_BATCH_SIZE = 500;
+
+    /**
+     * Reads several records at once, e.g. OdooXmlRpc::readRecords or OdooJSONRpc::read
+     */
+    public interface BatchReader {
+        List<? extends Map> read(String model, List<String> fields, List<Integer> ids) throws Exception;
+    }
+
+    private static class Batch {
+        private final String model;
+        private final List<String> fields;
+        private final Map<Integer, List<CompletableFuture<Map>>> waiting = new LinkedHashMap<>();
+
+        Batch(String model, List<String> fields) {
+            this.model = model;
+            this.fields = fields;
+        }
+    }
+
+    private final BatchReader reader;
+    private final Map<List<Object>, Batch> batches = new LinkedHashMap<>();
+    private volatile Executor executor = LOADER_EXECUTOR;
+    private volatile long windowMillis = DEFAULT_WINDOW_MILLIS;
+    private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    // loads queued or being read, guarded by batches
+    private int pendingLoads = 0;
+
+    public OdooRecordLoader(BatchReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Time a batch waits for more loads before being sent
+     * @param windowMillis
+     */
+    public void setWindowMillis(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+    public long getWindowMillis() {
+        return this.windowMillis;
+    }
+    /**
+     * A batch is sent as soon as it holds this many distinct ids
+     * @param maxBatchSize
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+    public int getMaxBatchSize() {
+        return this.maxBatchSize;
+    }
+    /**
+     * Executor running the batched reads, default is a shared daemon pool
+     * @param executor
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Queue the read of one record
+     * @param model
+     * @param id
+     * @param fields null or empty for all fields
+     * @return future record, null if it does not exist, completed exceptionally if the read failed
+     */
+    public CompletableFuture<Map> load(String model, int id, List<String> fields) {
+        return enqueue(model, id, fields, false);
+    }
+
+    /**
+     * Read one record and wait for it, at once when no other load is pending
+     * @param model
+     * @param id
+     * @param fields null or empty for all fields
+     * @return record, null if it does not exist
+     * @throws java.util.concurrent.CompletionException if the read failed
+     */
+    public Map get(String model, int id, List<String> fields) {
+        return enqueue(model, id, fields, true).join();
+    }
+
+    private CompletableFuture<Map> enqueue(String model, int id, List<String> fields, boolean skipIdleWindow) {
+        List<Object> key = Arrays.asList(model, fields == null ? Collections.emptySet() : new HashSet<>(fields));
+        CompletableFuture<Map> future = new CompletableFuture<>();
+        Batch full = null;
+        synchronized (batches) {
+            // nothing queued nor being read: no other load can join the batch
+            boolean now = skipIdleWindow && pendingLoads == 0;
+            pendingLoads++;
+            Batch batch = batches.get(key);
+            if (batch == null) {
+                batch = new Batch(model, fields);
+                batches.put(key, batch);
+                if (windowMillis > 0 && !now) {
+                    Batch scheduled = batch;
+                    TIMER.schedule(() -> dispatch(key, scheduled), windowMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            batch.waiting.computeIfAbsent(id, k -> new ArrayList<>()).add(future);
+            if (batch.waiting.size() >= maxBatchSize || windowMillis <= 0 || now) {
+                batches.remove(key);
+                full = batch;
+            }
+        }
+        future.whenComplete((record, e) -> {
+            synchronized (batches) {
+                pendingLoads--;
+            }
+        });
+        if (full != null) {
+            submit(full);
+        }
+        return future;
+    }
+
+    /**
+     * Send every queued batch now
+     */
+    public void flush() {
+        List<Batch> pending;
+        synchronized (batches) {
+            pending = new ArrayList<>(batches.values());
+            batches.clear();
+        }
+        pending.forEach(this::submit);
+    }
+
+    private void dispatch(List<Object> key, Batch batch) {
+        synchronized (batches) {
+            // already sent because it was full
+            if (batches.get(key) != batch) {
+                return;
+            }
+            batches.remove(key);
+        }
+        submit(batch);
+    }
+
+    private void submit(Batch batch) {
+        try {
+            executor.execute(() -> send(batch));
+        } catch (RejectedExecutionException e) {
+            send(batch);
+        }
+    }
+
+    private void send(Batch batch) {
+        List<Integer> ids = new ArrayList<>(batch.waiting.keySet());
+        List<? extends Map> records;
+        try {
+            records = reader.read(batch.model, batch.fields, ids);
+        } catch (Exception e) {
+            LOGGER.error("Unable to read " + ids.size() + " records of " + batch.model + ". " + e.getMessage());
+            if (ids.size() == 1) {
+                batch.waiting.values().forEach(futures -> futures.forEach(f -> f.completeExceptionally(e)));
+            } else {
+                // e.g. an AccessError on one of them: the other records are still readable
+                sendEach(batch);
+            }
+            return;
+        }
+        complete(batch, records);
+    }
+
+    private void sendEach(Batch batch) {
+        for (Map.Entry<Integer, List<CompletableFuture<Map>>> entry : batch.waiting.entrySet()) {
+            Batch single = new Batch(batch.model, batch.fields);
+            single.waiting.put(entry.getKey(), entry.getValue());
+            send(single);
+        }
+    }
+
+    private void complete(Batch batch, List<? extends Map> records) {
+        for (Map record : records) {
+            Object id = record.get("id");
+            Collection<CompletableFuture<Map>> futures = id instanceof Number
+                    ? batch.waiting.remove(((Number) id).intValue()) : null;
+            if (futures != null) {
+                futures.forEach(f -> f.complete(record));
+            }
+        }
+        // not returned by read: deleted or not readable
+        batch.waiting.values().forEach(futures -> futures.forEach(f -> f.complete(null)));
+    }
+}
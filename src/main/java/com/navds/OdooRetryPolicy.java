@@ -0,0 +1,167 @@
+package com.navds;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.HttpHostConnectException;
+
+/**
+ * When and how long to wait before sending a failed call again.
+ * Only transient failures are retried: no answer from the server, 429, 502, 503 and 504.
+ * Calls that were never sent (connection refused or timed out) are always retried,
+ * others only when the method is idempotent: read and search methods by default,
+ * create once setRetryCreate(true) is called, and calls that are not model methods
+ * (authenticate, version...). An XML-RPC system.multicall is retried only when all its
+ * calls are. Waits grow exponentially with full jitter, a Retry-After header is honored.
+ */
+public class OdooRetryPolicy {
+    public final static int DEFAULT_MAX_ATTEMPTS = 3;
+    public final static long DEFAULT_BASE_DELAY_MILLIS = 200;
+    public final static long DEFAULT_MAX_DELAY_MILLIS = 10000;
+
+    private final Set<String> idempotentMethods = ConcurrentHashMap.newKeySet();
+    private volatile int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private volatile long baseDelayMillis = DEFAULT_BASE_DELAY_MILLIS;
+    private volatile long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+
+    public OdooRetryPolicy() {
+        idempotentMethods.addAll(Arrays.asList("read", "search", "search_read", "search_count", "name_search",
+            "name_get", "read_group", "fields_get", "default_get", "export_data", "check_access_rights",
+            "get_metadata", OdooMetrics.NONE));
+    }
+
+    /**
+     * Attempts per call, the first one included
+     * @param maxAttempts 1 to never retry
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public int getMaxAttempts() {
+        return this.maxAttempts;
+    }
+
+    /**
+     * Wait bounds: the n-th retry waits a random time up to min(max, base * 2^(n-1)).
+     * A Retry-After longer than maxDelayMillis ends the retries.
+     * @param baseDelayMillis
+     * @param maxDelayMillis
+     */
+    public void setDelays(long baseDelayMillis, long maxDelayMillis) {
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Retry create calls too. A create whose answer was lost may then be applied twice.
+     * @param retryCreate
+     */
+    public void setRetryCreate(boolean retryCreate) {
+        if (retryCreate) {
+            idempotentMethods.add("create");
+        } else {
+            idempotentMethods.remove("create");
+        }
+    }
+
+    /**
+     * Declare a custom method safe to send twice
+     * @param method
+     */
+    public void addIdempotentMethod(String method) {
+        idempotentMethods.add(method);
+    }
+
+    public boolean isIdempotent(String method) {
+        return idempotentMethods.contains(method);
+    }
+
+    /**
+     * @param status http status
+     * @return true for statuses of an overloaded or restarting server
+     */
+    public static boolean isTransientStatus(int status) {
+        return status == 429 || status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * @param e
+     * @return true when the request did not reach the server
+     */
+    public static boolean isNotSent(Throwable e) {
+        return e instanceof HttpHostConnectException || e instanceof ConnectTimeoutException
+            || e instanceof ConnectException;
+    }
+
+    /**
+     * @param method called method, OdooMetrics.NONE when not a model method
+     * @param attempt attempts done so far
+     * @param failure transport failure, null when the server answered
+     * @param status http status when the server answered
+     * @return true when the call should be sent again
+     */
+    public boolean shouldRetry(String method, int attempt, IOException failure, int status) {
+        if (attempt >= maxAttempts) {
+            return false;
+        }
+        if (failure != null) {
+            return isNotSent(failure) || isIdempotent(method);
+        }
+        return isTransientStatus(status) && isIdempotent(method);
+    }
+
+    /**
+     * @param attempt attempts done so far
+     * @param retryAfter Retry-After header value, null if none
+     * @return millis to wait before next attempt, -1 when the server asks to wait longer than the max delay
+     */
+    public long delayMillis(int attempt, String retryAfter) {
+        long requested = parseRetryAfter(retryAfter);
+        if (requested > maxDelayMillis) {
+            return -1;
+        }
+        long exponential = baseDelayMillis << Math.min(attempt - 1, 30);
+        long bound = Math.min(maxDelayMillis, exponential < 0 ? maxDelayMillis : exponential);
+        long jittered = bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+        return Math.max(requested, jittered);
+    }
+
+    /**
+     * @param retryAfter delay in seconds or http date
+     * @return millis, 0 when missing or unparseable
+     */
+    static long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(retryAfter.trim());
+            return date == null ? 0 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Wait before next attempt
+     * @param millis
+     * @return false if interrupted, the call should then stop
+     */
+    static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.navds;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Receives exported rows one at a time, from a single thread
+ */
+public interface OdooRowSink {
+
+    void accept(List<Object> row) throws IOException;
+
+    /**
+     * RFC 4180 CSV, empty cells (null or false) are written as empty strings
+     * @param writer
+     * @param header first line, null for none
+     * @return sink
+     * @throws IOException if the header can not be written
+     */
+    static OdooRowSink csv(Writer writer, List<String> header) throws IOException {
+        if (header != null) {
+            writeCsvLine(writer, header);
+        }
+        return row -> writeCsvLine(writer, row);
+    }
+
+    /**
+     * One JSON document per line, an object keyed by fields or an array if fields is null
+     * @param writer
+     * @param fields
+     * @return sink
+     */
+    static OdooRowSink jsonLines(Writer writer, List<String> fields) {
+        return row -> {
+            if (fields == null) {
+                writer.write(new JSONArray(row).toString());
+            } else {
+                JSONObject line = new JSONObject();
+                for (int i = 0; i < fields.size() && i < row.size(); i++) {
+                    line.put(fields.get(i), row.get(i) == null ? JSONObject.NULL : row.get(i));
+                }
+                writer.write(line.toString());
+            }
+            writer.write('\n');
+        };
+    }
+
+    static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            String cell = value == null || Boolean.FALSE.equals(value) ? "" : value.toString();
+            if (cell.indexOf(',') >= 0 || cell.indexOf('"') >= 0 || cell.indexOf('\n') >= 0
+                    || cell.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(cell.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(cell);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
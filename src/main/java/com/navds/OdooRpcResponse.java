@@ -1,10 +1,20 @@
 package com.navds;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.ContentType;
 import org.apache.http.util.EntityUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -13,6 +23,13 @@ import org.json.JSONObject;
 public class OdooRpcResponse {
     int status = -1; // undefined
     String body = "";
+    // body parsed on first access, then reused by every accessor
+    private JSONObject json;
+    private boolean parsed = false;
+    // set when no answer was received, see OdooRetryPolicy
+    IOException failure;
+    String retryAfter;
+    private String errorName;
     private final static Log LOGGER = LogFactory.getLog(OdooRpcResponse.class);
 
     public void setStatus(int status) {
@@ -23,19 +40,49 @@ public class OdooRpcResponse {
     }
     public void setBody(String body) {
         this.body = body;
+        this.json = null;
+        this.parsed = false;
     }
     public String getBody() {
         return this.body;
     }
     public boolean isOkay() {
         boolean isOkay = this.status == HttpStatus.SC_OK;
-        isOkay = isOkay && ! new JSONObject(this.body).has("error");
+        isOkay = isOkay && parse() != null && !json.has("error");
         return isOkay;
     }
 
+    /**
+     * Parse body at most once
+     * @return json tree or null if the body is not a json object
+     */
+    private JSONObject parse() {
+        if (!parsed) {
+            parsed = true;
+            try {
+                json = new JSONObject(this.body);
+            } catch (JSONException e) {
+                LOGGER.error("Response is not a valid json. " + e.getMessage());
+            }
+        }
+        return json;
+    }
+
     public OdooRpcResponse() {
 
     }
+
+    /**
+     * Response of a call that was not sent
+     * @param errorName returned by getErrorName
+     * @return OdooRpcResponse
+     */
+    static OdooRpcResponse failed(String errorName) {
+        OdooRpcResponse response = new OdooRpcResponse();
+        response.errorName = errorName;
+        return response;
+    }
+
     public OdooRpcResponse(int status, String body) {
         this.status = status;
         this.body = body;
@@ -45,45 +92,72 @@ public class OdooRpcResponse {
         HttpEntity responseEntity = httpResponse.getEntity();
         if (responseEntity != null) {
             try {
-                this.body = EntityUtils.toString(responseEntity);
+                this.body = EntityUtils.toString(responseEntity, StandardCharsets.UTF_8);
             } catch (Exception e) {
                 LOGGER.warn("Unparseable response", e);
             }
         }
     }
 
+    /**
+     * Read the response without buffering it: rows of the result array are
+     * handed to rowConsumer while being parsed and left out of the body.
+     * Error responses are read as usual.
+     * @param httpResponse
+     * @param rowConsumer receives Map for objects, List for arrays
+     * @return OdooRpcResponse
+     */
+    public static OdooRpcResponse streamed(CloseableHttpResponse httpResponse, Consumer<Object> rowConsumer) {
+        int status = httpResponse.getStatusLine().getStatusCode();
+        HttpEntity responseEntity = httpResponse.getEntity();
+        if (status != HttpStatus.SC_OK || responseEntity == null) {
+            return new OdooRpcResponse(httpResponse);
+        }
+        OdooRpcResponse response = new OdooRpcResponse();
+        response.status = status;
+        Charset charset = ContentType.getOrDefault(responseEntity).getCharset();
+        try (InputStream stream = responseEntity.getContent()) {
+            response.json = new OdooJsonStreamParser(rowConsumer)
+                .parse(stream, charset == null ? StandardCharsets.UTF_8 : charset);
+            response.parsed = true;
+            response.body = response.json.toString();
+        } catch (Exception e) {
+            LOGGER.warn("Unparseable response", e);
+        }
+        return response;
+    }
+
+    /**
+     * @return parsed body, an empty object if the body is not valid json
+     */
     public JSONObject getJSONObject(){
-        JSONObject json = new JSONObject();
-        json = new JSONObject(this.body);
-        return json;
+        JSONObject json = parse();
+        return json == null ? new JSONObject() : json;
     }
 
     public JSONArray getResultArray() {
-        JSONArray result = new JSONArray();
-        try {
-            result = new JSONObject(this.body).getJSONArray("result");
-        } catch (JSONException jsonException) {
+        JSONArray result = getJSONObject().optJSONArray("result");
+        if (result == null) {
             LOGGER.error("Result is not an array. " + this.body);
+            result = new JSONArray();
         }
         return result;
     }
 
     public JSONObject getResultObject() {
-        JSONObject result = new JSONObject();
-        try {
-            result = new JSONObject(this.body).getJSONObject("result");
-        } catch (JSONException jsonException) {
+        JSONObject result = getJSONObject().optJSONObject("result");
+        if (result == null) {
             LOGGER.error("Result is not an Object. " + this.body);
+            result = new JSONObject();
         }
         return result;
     }
 
     public JSONObject getErrorObject() {
-        JSONObject error = new JSONObject();
-        try {
-            error = new JSONObject(this.body).getJSONObject("error");
-        } catch (JSONException e) {
-            LOGGER.error("Response is not a valid json. " + e.getMessage());
+        JSONObject error = getJSONObject().optJSONObject("error");
+        if (error == null) {
+            LOGGER.error("Response has no error object.");
+            error = new JSONObject();
         }
         return error;
     }
@@ -91,7 +165,7 @@ public class OdooRpcResponse {
     public String getErrorMessage() {
         String error = "";
         try {
-            JSONObject data = new JSONObject(this.body)
+            JSONObject data = getJSONObject()
                 .getJSONObject("error")
                 .getJSONObject("data");
             error = data.getString("name") + ". " + data.getString("message");
@@ -100,4 +174,82 @@ public class OdooRpcResponse {
         }
         return error;
     }
+
+    /**
+     * Short name of the failure, for metrics
+     * @return null when okay, circuit_open when not sent, the java exception name (or io_error)
+     * without http answer, http_STATUS, the odoo exception name or invalid_response
+     */
+    public String getErrorName() {
+        if (this.errorName != null) {
+            return this.errorName;
+        }
+        if (this.failure != null) {
+            return this.failure.getClass().getName();
+        }
+        if (this.status == -1) {
+            return "io_error";
+        }
+        if (this.status != HttpStatus.SC_OK) {
+            return "http_" + this.status;
+        }
+        if (parse() == null) {
+            return "invalid_response";
+        }
+        JSONObject error = json.optJSONObject("error");
+        if (error == null) {
+            return null;
+        }
+        JSONObject data = error.optJSONObject("data");
+        return data == null ? "invalid_response" : data.optString("name", "invalid_response");
+    }
+
+    /**
+     * Result as integer (create, search_count)
+     * @return result or 0 if not a number
+     */
+    public int resultAsInt() {
+        return getJSONObject().optInt("result", 0);
+    }
+
+    /**
+     * Result as list of integer (search, create with a list of values)
+     * @return ids, non integer items are skipped
+     */
+    public List<Integer> resultAsIntArray() {
+        JSONArray result = getResultArray();
+        List<Integer> ids = new ArrayList<>(result.length());
+        for (int i = 0; i < result.length(); i++) {
+            Object id = result.get(i);
+            if (id instanceof Number) {
+                ids.add(((Number) id).intValue());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Result as list of records (read, search_read), or the records of a
+     * /web/dataset/search_read result
+     * @return list of Map<field,value>
+     */
+    public List<Map<String,Object>> resultAsRecords() {
+        JSONObject json = getJSONObject();
+        JSONArray result = json.optJSONArray("result");
+        if (result == null && json.optJSONObject("result") != null) {
+            result = json.getJSONObject("result").optJSONArray("records");
+        }
+        List<Map<String,Object>> records = new ArrayList<>();
+        if (result == null) {
+            LOGGER.error("Result is not a list of records. " + this.body);
+            return records;
+        }
+        for (int i = 0; i < result.length(); i++) {
+            JSONObject record = result.optJSONObject(i);
+            if (record != null) {
+                records.add(record.toMap());
+            }
+        }
+        return records;
+    }
 }
@@ -0,0 +1,112 @@
+package com.navds;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request and response of one traced call. Bodies are kept as captured bytes,
+ * cut at the tracer max body size, and only decoded when read.
+ */
+public class OdooTrace {
+    private final long timestamp;
+    private final String endpoint;
+    private final String model;
+    private final String method;
+    private final long durationNanos;
+    private final String error;
+    private final byte[] request;
+    private final long requestBytes;
+    private final byte[] response;
+    private final long responseBytes;
+
+    OdooTrace(long timestamp, String endpoint, String model, String method, long durationNanos, String error,
+            byte[] request, long requestBytes, byte[] response, long responseBytes) {
+        this.timestamp = timestamp;
+        this.endpoint = endpoint;
+        this.model = model;
+        this.method = method;
+        this.durationNanos = durationNanos;
+        this.error = error;
+        this.request = request;
+        this.requestBytes = requestBytes;
+        this.response = response;
+        this.responseBytes = responseBytes;
+    }
+
+    /**
+     * @return start of the call, epoch millis
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    public String getEndpoint() {
+        return this.endpoint;
+    }
+
+    public String getModel() {
+        return this.model;
+    }
+
+    public String getMethod() {
+        return this.method;
+    }
+
+    public long getDurationNanos() {
+        return this.durationNanos;
+    }
+
+    /**
+     * @return error name as reported to OdooMetrics, null on success
+     */
+    public String getError() {
+        return this.error;
+    }
+
+    /**
+     * @return request body (before compression) decoded as UTF-8, possibly truncated
+     */
+    public String getRequestBody() {
+        return new String(request, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return full size of the request body
+     */
+    public long getRequestBytes() {
+        return this.requestBytes;
+    }
+
+    public boolean isRequestTruncated() {
+        return request.length < requestBytes;
+    }
+
+    /**
+     * @return response body decoded as UTF-8, possibly truncated
+     */
+    public String getResponseBody() {
+        return new String(response, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return size of the response body read by the client
+     */
+    public long getResponseBytes() {
+        return this.responseBytes;
+    }
+
+    public boolean isResponseTruncated() {
+        return response.length < responseBytes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(endpoint).append(' ').append(model).append('.').append(method)
+            .append(String.format(" %.1f ms", durationNanos / 1e6))
+            .append(error == null ? "" : " " + error)
+            .append("\n> ").append(getRequestBody()).append(isRequestTruncated() ? "... (" + requestBytes + " bytes)" : "")
+            .append("\n< ").append(getResponseBody())
+            .append(isResponseTruncated() ? "... (" + responseBytes + " bytes)" : "");
+        return text.toString();
+    }
+}
@@ -0,0 +1,20 @@
+package com.navds;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Receives traced calls. Called from the thread that made the call, so a slow
+ * sink should be wrapped in an OdooAsyncTraceSink.
+ */
+public interface OdooTraceSink {
+
+    void accept(OdooTrace trace);
+
+    /**
+     * @param log
+     * @return sink writing every trace to log at info level
+     */
+    static OdooTraceSink log(Log log) {
+        return trace -> log.info(trace);
+    }
+}
@@ -0,0 +1,192 @@
+package com.navds;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples calls and captures their bodies while they are streamed, without buffering them:
+ * only the first maxBodyBytes of each body are copied. Set on a client with setTracer.
+ * <pre>
+ * OdooAsyncTraceSink sink = new OdooAsyncTraceSink(OdooTraceSink.log(log), 1024);
+ * OdooTracer tracer = new OdooTracer(sink);
+ * tracer.setSampleRate(0.01);
+ * odoo.setTracer(tracer);
+ * </pre>
+ */
+public class OdooTracer {
+    private final OdooTraceSink sink;
+    private volatile double sampleRate = 1;
+    private volatile int maxBodyBytes = 4096;
+
+    public OdooTracer(OdooTraceSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Share of calls traced, default 1 (every call)
+     * @param sampleRate between 0 and 1
+     */
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public double getSampleRate() {
+        return this.sampleRate;
+    }
+
+    /**
+     * Bytes kept of each request and response body, default 4096
+     * @param maxBodyBytes
+     */
+    public void setMaxBodyBytes(int maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    public int getMaxBodyBytes() {
+        return this.maxBodyBytes;
+    }
+
+    /**
+     * Start tracing a call
+     * @param endpoint
+     * @param model
+     * @param method
+     * @return null when the call is not sampled
+     */
+    public Span start(String endpoint, String model, String method) {
+        double rate = sampleRate;
+        if (rate <= 0 || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return null;
+        }
+        return new Span(endpoint, model, method, maxBodyBytes);
+    }
+
+    /**
+     * One traced call, used by a single thread
+     */
+    public class Span {
+        private final long timestamp = System.currentTimeMillis();
+        private final long start = System.nanoTime();
+        private final String endpoint;
+        private final String model;
+        private final String method;
+        private final Capture request;
+        private final Capture response;
+
+        private Span(String endpoint, String model, String method, int maxBodyBytes) {
+            this.endpoint = endpoint;
+            this.model = model;
+            this.method = method;
+            this.request = new Capture(maxBodyBytes);
+            this.response = new Capture(maxBodyBytes);
+        }
+
+        /**
+         * Capture an in-memory request body
+         * @param body
+         */
+        public void request(byte[] body) {
+            request.write(body, 0, body.length);
+        }
+
+        /**
+         * @param out
+         * @return stream copying the start of the request body written to out
+         */
+        public OutputStream teeRequest(OutputStream out) {
+            return new FilterOutputStream(out) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    request.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    request.write(b, off, len);
+                }
+            };
+        }
+
+        /**
+         * @param in
+         * @return stream copying the start of the response body read from in
+         */
+        public InputStream teeResponse(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        response.write(b);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int read = super.read(b, off, len);
+                    if (read > 0) {
+                        response.write(b, off, read);
+                    }
+                    return read;
+                }
+            };
+        }
+
+        /**
+         * Hand the trace to the sink
+         * @param error null on success
+         */
+        public void finish(String error) {
+            sink.accept(new OdooTrace(timestamp, endpoint, model, method, System.nanoTime() - start, error,
+                request.bytes(), request.total, response.bytes(), response.total));
+        }
+    }
+
+    // keeps the first max bytes written, counts all of them
+    private static class Capture {
+        private final int max;
+        private byte[] buffer = new byte[0];
+        private int size;
+        private long total;
+
+        Capture(int max) {
+            this.max = Math.max(max, 0);
+        }
+
+        void write(int b) {
+            if (size < max) {
+                grow(1);
+                buffer[size++] = (byte) b;
+            }
+            total++;
+        }
+
+        void write(byte[] b, int off, int len) {
+            int copied = Math.min(len, max - size);
+            if (copied > 0) {
+                grow(copied);
+                System.arraycopy(b, off, buffer, size, copied);
+                size += copied;
+            }
+            total += len;
+        }
+
+        private void grow(int needed) {
+            if (size + needed > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(max, Math.max(size + needed, buffer.length * 2)));
+            }
+        }
+
+        byte[] bytes() {
+            return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.navds;
+
+import java.util.Objects;
+
+/**
+ * Position in the (write_date, id) order of a model, everything up to it has been synced
+ */
+public final class OdooWatermark {
+    private final String writeDate;
+    private final int id;
+
+    /**
+     * @param writeDate odoo datetime "yyyy-MM-dd HH:mm:ss" (UTC)
+     * @param id
+     */
+    public OdooWatermark(String writeDate, int id) {
+        this.writeDate = Objects.requireNonNull(writeDate, "writeDate");
+        this.id = id;
+    }
+
+    public String getWriteDate() {
+        return this.writeDate;
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * @param value as returned by toString()
+     * @return watermark, null if value is null or malformed
+     */
+    public static OdooWatermark parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        int separator = value.lastIndexOf('|');
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            return new OdooWatermark(value.substring(0, separator), Integer.parseInt(value.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return writeDate + "|" + id;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof OdooWatermark)) {
+            return false;
+        }
+        OdooWatermark watermark = (OdooWatermark) other;
+        return id == watermark.id && writeDate.equals(watermark.writeDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(writeDate, id);
+    }
+}
@@ -0,0 +1,84 @@
+package com.navds;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Watermarks of incremental syncs saved in a local properties file, one per key (e.g. the model name).
+ * The file is replaced atomically so a crash never leaves it half written.
+ */
+public class OdooWatermarkStore {
+    private final static Log LOGGER = LogFactory.getLog(OdooWatermarkStore.class);
+    private final Path path;
+
+    public OdooWatermarkStore(File file) {
+        this.path = file.toPath();
+    }
+
+    /**
+     * @param key
+     * @return saved watermark, null if none (first sync)
+     */
+    public synchronized OdooWatermark load(String key) {
+        return OdooWatermark.parse(read().getProperty(key));
+    }
+
+    /**
+     * @param key
+     * @param watermark
+     * @return false if the file could not be written
+     */
+    public synchronized boolean save(String key, OdooWatermark watermark) {
+        Properties watermarks = read();
+        watermarks.setProperty(key, watermark.toString());
+        return write(watermarks);
+    }
+
+    /**
+     * Forget a key, the next sync starts from scratch
+     * @param key
+     * @return false if the file could not be written
+     */
+    public synchronized boolean remove(String key) {
+        Properties watermarks = read();
+        watermarks.remove(key);
+        return write(watermarks);
+    }
+
+    private Properties read() {
+        Properties watermarks = new Properties();
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                watermarks.load(in);
+            } catch (IOException e) {
+                LOGGER.error("Unable to read watermarks from " + path + ". " + e.getMessage());
+            }
+        }
+        return watermarks;
+    }
+
+    private boolean write(Properties watermarks) {
+        Path parent = path.toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                watermarks.store(out, "odoo sync watermarks");
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Unable to save watermarks to " + path + ". " + e.getMessage());
+            return false;
+        }
+    }
+}
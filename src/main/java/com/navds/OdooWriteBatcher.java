@@ -0,0 +1,278 @@
+package com.navds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Queue per record updates and send one write(ids, values) per distinct (model, values).
+ * A flush happens when flushSize updates are queued, when the oldest one is older than
+ * flushTimeoutMillis, or on flush()/close(). A record updated again with other values
+ * flushes the queue first, so updates are applied in order.
+ * A write refused by odoo is split in two and retried until the failing records are isolated.
+ * A write that failed without an answer (network, timeout) fails the futures of its whole group.
+ *
+ * try (OdooWriteBatcher writes = odoo.writeBatcher()) {
+ *     done.forEach(id -&gt; writes.add("stock.picking", id, Collections.singletonMap("state", "done")));
+ * }
+ */
+public class OdooWriteBatcher implements AutoCloseable {
+    private final static Log LOGGER = LogFactory.getLog(OdooWriteBatcher.class);
+
+    /**
+     * write(ids, values): returns false when odoo refused the values (the group is then bisected),
+     * throws when the call itself failed. See OdooJSONRpc.writeBatcher and OdooXmlRpc.writeBatcher.
+     */
+    public interface GroupWriter {
+        boolean write(String model, List<Integer> ids, Map<String, Object> values) throws Exception;
+    }
+
+    /**
+     * Outcome of the update of one record
+     */
+    public static class Outcome {
+        private final String model;
+        private final int id;
+        private final boolean okay;
+        private final Throwable error;
+
+        Outcome(String model, int id, boolean okay, Throwable error) {
+            this.model = model;
+            this.id = id;
+            this.okay = okay;
+            this.error = error;
+        }
+        public String getModel() {
+            return this.model;
+        }
+        public int getId() {
+            return this.id;
+        }
+        public boolean isOkay() {
+            return this.okay;
+        }
+        /**
+         * @return exception thrown by the write, null if it returned
+         */
+        public Throwable getError() {
+            return this.error;
+        }
+    }
+
+    private static class Update {
+        private final String model;
+        private final int id;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        Update(String model, int id) {
+            this.model = model;
+            this.id = id;
+        }
+    }
+
+    private static class Group {
+        private final String model;
+        private final Map<String, Object> values;
+        private final Map<Integer, List<Update>> updates = new LinkedHashMap<>();
+
+        Group(String model, Map<String, Object> values) {
+            this.model = model;
+            this.values = values;
+        }
+    }
+
+    private final GroupWriter writer;
+    private final ExecutorService executor = OdooExecutors.newRpcExecutor("odoo-write-batch");
+    private final Object sendLock = new Object();
+    private ScheduledExecutorService timer;
+    private ScheduledFuture<?> scheduledFlush;
+    private Map<List<Object>, Group> groups = new LinkedHashMap<>();
+    private Map<List<Object>, Group> pendingIds = new HashMap<>();
+    private List<Update> queue = new ArrayList<>();
+    private int flushSize = 1000;
+    private long flushTimeoutMillis = 0;
+    private int maxInFlight = 4;
+
+    public OdooWriteBatcher(GroupWriter writer) {
+        this.writer = writer;
+    }
+
+    public void setFlushSize(int flushSize) {
+        this.flushSize = flushSize;
+    }
+    public int getFlushSize() {
+        return this.flushSize;
+    }
+    /**
+     * Flush queued updates at the latest this long after the first one was queued, 0 to disable
+     * @param flushTimeoutMillis
+     */
+    public void setFlushTimeoutMillis(long flushTimeoutMillis) {
+        this.flushTimeoutMillis = flushTimeoutMillis;
+    }
+    public long getFlushTimeoutMillis() {
+        return this.flushTimeoutMillis;
+    }
+    /**
+     * Max concurrent write calls of a flush
+     * @param maxInFlight
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Queue the update of one record
+     * @param model
+     * @param id
+     * @param values fields to write, copied
+     * @return future completed with the write result, or exceptionally with its error
+     */
+    public CompletableFuture<Boolean> add(String model, int id, Map<String, Object> values) {
+        Map<String, Object> copy = new HashMap<>(values);
+        List<Object> groupKey = Arrays.asList(model, copy);
+        List<Object> idKey = Arrays.asList(model, id);
+        Update update = new Update(model, id);
+        boolean full;
+        while (true) {
+            synchronized (this) {
+                Group pending = pendingIds.get(idKey);
+                if (pending == null || pending.values.equals(copy)) {
+                    Group group = groups.computeIfAbsent(groupKey, k -> new Group(model, copy));
+                    group.updates.computeIfAbsent(id, k -> new ArrayList<>()).add(update);
+                    pendingIds.put(idKey, group);
+                    queue.add(update);
+                    full = queue.size() >= flushSize;
+                    if (!full && queue.size() == 1 && flushTimeoutMillis > 0) {
+                        if (timer == null) {
+                            timer = Executors.newSingleThreadScheduledExecutor(
+                                    OdooExecutors.daemonThreadFactory("odoo-write-flush"));
+                        }
+                        scheduledFlush = timer.schedule(this::flush, flushTimeoutMillis, TimeUnit.MILLISECONDS);
+                    }
+                    break;
+                }
+            }
+            // same record queued with other values: write those first
+            flush();
+        }
+        if (full) {
+            flush();
+        }
+        return update.future;
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    /**
+     * Send queued updates and wait for them
+     * @return outcome of every flushed update, in queue order
+     */
+    public List<Outcome> flush() {
+        List<Update> updates;
+        synchronized (sendLock) {
+            List<Group> drained;
+            synchronized (this) {
+                drained = new ArrayList<>(groups.values());
+                updates = queue;
+                groups = new LinkedHashMap<>();
+                pendingIds = new HashMap<>();
+                queue = new ArrayList<>();
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+            }
+            send(drained);
+        }
+        List<Outcome> outcomes = new ArrayList<>(updates.size());
+        for (Update update : updates) {
+            try {
+                outcomes.add(new Outcome(update.model, update.id, update.future.join(), null));
+            } catch (CompletionException e) {
+                outcomes.add(new Outcome(update.model, update.id, false, e.getCause()));
+            }
+        }
+        return outcomes;
+    }
+
+    private void send(List<Group> drained) {
+        if (drained.isEmpty()) {
+            return;
+        }
+        // groups of one flush never share a record, their order does not matter
+        OdooBoundedExecutor bounded = new OdooBoundedExecutor(executor, maxInFlight);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(drained.size());
+        for (Group group : drained) {
+            futures.add(bounded.submit(() -> {
+                write(group, new ArrayList<>(group.updates.keySet()));
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+    }
+
+    private void write(Group group, List<Integer> ids) {
+        boolean okay;
+        try {
+            okay = writer.write(group.model, ids, group.values);
+        } catch (Exception e) {
+            // not a refusal of the values, sending halves would only multiply calls
+            LOGGER.warn("Unable to write " + group.model + "," + ids + ". " + e.getMessage());
+            complete(group, ids, false, e);
+            return;
+        }
+        if (!okay && ids.size() > 1) {
+            int half = ids.size() / 2;
+            write(group, ids.subList(0, half));
+            write(group, ids.subList(half, ids.size()));
+            return;
+        }
+        if (!okay) {
+            LOGGER.warn("Unable to write " + group.model + "," + ids.get(0));
+        }
+        complete(group, ids, okay, null);
+    }
+
+    private static void complete(Group group, List<Integer> ids, boolean okay, Throwable error) {
+        for (Integer id : ids) {
+            for (Update update : group.updates.get(id)) {
+                if (error != null) {
+                    update.future.completeExceptionally(error);
+                } else {
+                    update.future.complete(okay);
+                }
+            }
+        }
+    }
+
+    /**
+     * Flush remaining updates and release threads
+     */
+    @Override
+    public void close() {
+        flush();
+        synchronized (this) {
+            if (timer != null) {
+                timer.shutdown();
+                timer = null;
+            }
+        }
+        executor.shutdown();
+    }
+}
@@ -8,92 +8,297 @@
 // ==============================================================
 package com.navds;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.xmlrpc.XmlRpcException;
 import org.apache.xmlrpc.client.*;
 
-public class OdooXmlRpc {
-
-    private int uid = -1;
-    private String password;
-    private String database;
-
-    private URL host;
-    private XmlRpcClient client = new XmlRpcClient();
-    private XmlRpcClientConfigImpl commonConfig = new XmlRpcClientConfigImpl();
-    private XmlRpcClientConfigImpl objectConfig = new XmlRpcClientConfigImpl();
-    public static Log LOGGER = LogFactory.getLog(OdooXmlRpc.class);
+/**
+ * Instances are thread-safe once logged in: every call passes its own
+ * (never mutated) config to the shared XmlRpcClient, and the context is
+ * replaced rather than modified.
+ */
+public class OdooXmlRpc implements Closeable {
+
+    private volatile int uid = -1;
+    private volatile String password;
+    private volatile String database;
+
+    private volatile URL host;
+    private final XmlRpcClient client = new XmlRpcClient();
+    private volatile XmlRpcClientConfigImpl commonConfig;
+    private volatile XmlRpcClientConfigImpl objectConfig;
+    private volatile OdooHttpClientConfig httpClientConfig = new OdooHttpClientConfig();
+    private PoolingHttpClientConnectionManager connectionManager;
+    private volatile CloseableHttpClient httpClient;
+    private final XmlRpcHttpClientTransportFactory pooledTransportFactory = new XmlRpcHttpClientTransportFactory(
+            client, this::getHttpClient);
+    private volatile boolean dumpRequest = false;
+    private volatile OdooMetadataCache metadataCache;
+    private volatile OdooRecordCache recordCache;
+    private volatile OdooRecordLoader recordLoader;
+    private volatile OdooMetrics metrics = OdooMetrics.NOOP;
+    private volatile OdooTracer tracer;
+    private volatile OdooRetryPolicy retryPolicy;
+    private volatile OdooCircuitBreaker circuitBreaker;
+    public static final Log LOGGER = LogFactory.getLog(OdooXmlRpc.class);
+    public static final int DEFAULT_CREATE_CHUNK_SIZE = 500;
+    private volatile Log logger = LOGGER;
 
     public void setLogger(String logger) {
-        LOGGER = LogFactory.getLog(logger);
+        this.logger = LogFactory.getLog(logger);
     }
 
     public void setLogger(Log logger) {
-        LOGGER = logger;
+        this.logger = logger;
     }
 
-    private Map<String, Object> context = new HashMap<>();
+    // copy on write, calls in flight keep the snapshot they started with
+    private volatile Map<String, Object> context = Collections.emptyMap();
 
-    public void addContext(String key, Object value) {
-        context.put(key, value);
+    public synchronized void addContext(String key, Object value) {
+        Map<String, Object> newContext = new HashMap<>(context);
+        newContext.put(key, value);
+        context = Collections.unmodifiableMap(newContext);
     }
 
-    public void emptyContext() {
-        context.clear();
+    public synchronized void emptyContext() {
+        context = Collections.emptyMap();
     }
 
     private final int CONNECTION_TIMEOUT = 20000;
     private final int RECEIVE_TIMEOUT = 60000;
 
     public OdooXmlRpc() {
-        commonConfig.setConnectionTimeout(CONNECTION_TIMEOUT);
-        commonConfig.setReplyTimeout(RECEIVE_TIMEOUT);
-        commonConfig.setEnabledForExtensions(true);
-        commonConfig.setEnabledForExceptions(true);
-        objectConfig.setConnectionTimeout(CONNECTION_TIMEOUT);
-        objectConfig.setReplyTimeout(RECEIVE_TIMEOUT);
-        objectConfig.setEnabledForExtensions(true);
-        objectConfig.setEnabledForExceptions(true);
-        context.put("active_test", false);
+        commonConfig = newConfig(null);
+        objectConfig = newConfig(null);
+        addContext("active_test", false);
+        client.setTransportFactory(() -> dumpRequest
+                ? new MessageLoggingTransport(client, true)
+                : pooledTransportFactory.getTransport());
+    }
 
+    /**
+     * Config passed to every call, never modified once built
+     */
+    private XmlRpcClientConfigImpl newConfig(URL serverUrl) {
+        XmlRpcClientConfigImpl config = new XmlRpcClientConfigImpl();
+        config.setServerURL(serverUrl);
+        config.setConnectionTimeout(CONNECTION_TIMEOUT);
+        config.setReplyTimeout(RECEIVE_TIMEOUT);
+        config.setEnabledForExtensions(true);
+        config.setEnabledForExceptions(true);
+        config.setGzipRequesting(httpClientConfig.isResponseCompression());
+        return config;
     }
 
     /**
-     * If called, xmlrpc request/response will be printed to stdout
+     * Configure pool size, keep-alive, idle eviction, socket settings and
+     * compression of the http client. An already opened pool is closed and rebuilt on next call.
+     * Connect and reply timeouts stay driven by CONNECTION_TIMEOUT and RECEIVE_TIMEOUT.
+     * 
+     * @param config
      */
-    public void dumpRequest() {
-        dumpRequest(true);
+    public synchronized void setHttpClientConfig(OdooHttpClientConfig config) {
+        this.httpClientConfig = config;
+        commonConfig = newConfig(commonConfig.getServerURL());
+        objectConfig = newConfig(objectConfig.getServerURL());
+        pooledTransportFactory.setCompressionThreshold(config.getRequestCompressionThreshold());
+        closeHttpClient();
     }
 
-    public void dumpRequest(boolean flag) {
-        if (flag) {
-            final XmlRpcTransportFactory transportFactory = new XmlRpcTransportFactory() {
-                public XmlRpcTransport getTransport() {
+    public OdooHttpClientConfig getHttpClientConfig() {
+        return this.httpClientConfig;
+    }
 
-                    return new MessageLoggingTransport(client, true);
-                }
-            };
-            client.setTransportFactory(transportFactory);
-        } else {
-            final XmlRpcTransportFactory transportFactoryDef = new XmlRpcTransportFactory() {
-                public XmlRpcTransport getTransport() {
+    /**
+     * Cache of fields_get answers, null (the default) to disable, e.g. OdooMetadataCache.getShared()
+     * 
+     * @param metadataCache
+     */
+    public void setMetadataCache(OdooMetadataCache metadataCache) {
+        this.metadataCache = metadataCache;
+    }
+
+    public OdooMetadataCache getMetadataCache() {
+        return this.metadataCache;
+    }
+
+    /**
+     * Cache of records used by getRecordById, null (the default) to disable
+     * 
+     * @param recordCache
+     */
+    public void setRecordCache(OdooRecordCache recordCache) {
+        this.recordCache = recordCache;
+    }
+
+    public OdooRecordCache getRecordCache() {
+        return this.recordCache;
+    }
+
+    /**
+     * Coalesce concurrent getRecordById calls into batched reads, null (the default) to disable
+     * 
+     * @param recordLoader e.g. new OdooRecordLoader(odoo::readRecords)
+     */
+    public void setRecordLoader(OdooRecordLoader recordLoader) {
+        this.recordLoader = recordLoader;
+    }
+
+    public OdooRecordLoader getRecordLoader() {
+        return this.recordLoader;
+    }
+
+    /**
+     * Report every call to metrics, the connection pool is bound as "xmlrpc"
+     * 
+     * @param metrics OdooMetrics.NOOP (the default) to disable
+     */
+    public void setMetrics(OdooMetrics metrics) {
+        setMetrics(metrics, "xmlrpc");
+    }
+
+    /**
+     * Report every call to metrics
+     * 
+     * @param metrics  OdooMetrics.NOOP (the default) to disable
+     * @param poolName name the connection pool is bound with
+     */
+    public void setMetrics(OdooMetrics metrics, String poolName) {
+        this.metrics = metrics;
+        pooledTransportFactory.setMetrics(metrics);
+        metrics.bindPool(poolName, this::getPoolStats);
+    }
+
+    public OdooMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Trace sampled calls through the pooled transport, bodies are captured
+     * while streamed and handed to the tracer sink
+     * 
+     * @param tracer null (the default) to disable
+     */
+    public void setTracer(OdooTracer tracer) {
+        this.tracer = tracer;
+        pooledTransportFactory.setTracer(tracer);
+    }
+
+    public OdooTracer getTracer() {
+        return this.tracer;
+    }
+
+    /**
+     * Send failed calls again, see OdooRetryPolicy for what is retried
+     * 
+     * @param retryPolicy null (the default) to never retry
+     */
+    public void setRetryPolicy(OdooRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        pooledTransportFactory.setRetryPolicy(retryPolicy);
+    }
 
-                    return new XmlRpcSunHttpTransport(client);
+    public OdooRetryPolicy getRetryPolicy() {
+        return this.retryPolicy;
+    }
+
+    /**
+     * Fail calls at once while the server is saturated, usually
+     * OdooCircuitBreaker.forServer(url) so every client of the server shares it.
+     * Calls refused by an open circuit fail as if the server was unreachable.
+     * 
+     * @param circuitBreaker null (the default) to disable
+     */
+    public void setCircuitBreaker(OdooCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        pooledTransportFactory.setCircuitBreaker(circuitBreaker);
+    }
+
+    public OdooCircuitBreaker getCircuitBreaker() {
+        return this.circuitBreaker;
+    }
+
+    void invalidateRecords(String modelName, String methodName, List args) {
+        OdooRecordCache cache = recordCache;
+        if (cache != null) {
+            cache.invalidate(modelName, methodName, args);
+        }
+    }
+
+    private CloseableHttpClient getHttpClient() {
+        CloseableHttpClient result = httpClient;
+        if (result == null) {
+            synchronized (this) {
+                if (httpClient == null) {
+                    connectionManager = httpClientConfig.createConnectionManager();
+                    httpClient = httpClientConfig.createHttpClient(connectionManager);
                 }
-            };
-            client.setTransportFactory(transportFactoryDef);
+                result = httpClient;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Connection pool usage, null until the first call
+     * 
+     * @return PoolStats
+     */
+    public synchronized PoolStats getPoolStats() {
+        return connectionManager == null ? null : connectionManager.getTotalStats();
+    }
+
+    private synchronized void closeHttpClient() {
+        if (httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                logger.warn("Error while closing http client", e);
+            }
+            httpClient = null;
+            connectionManager = null;
         }
     }
 
+    /**
+     * Release pooled connections. The instance can still be used, a new pool is
+     * opened on next call.
+     */
+    @Override
+    public void close() {
+        closeHttpClient();
+    }
+
+    /**
+     * If called, xmlrpc request/response will be printed to stdout
+     */
+    public void dumpRequest() {
+        dumpRequest(true);
+    }
+
+    public void dumpRequest(boolean flag) {
+        this.dumpRequest = flag;
+    }
+
     public int getUid() {
         return this.uid;
     }
@@ -130,7 +335,7 @@ public class OdooXmlRpc {
         try {
             setHost(new URL(host));
         } catch (MalformedURLException e) {
-            LOGGER.fatal(String.format("[OdooXmlRpc.setHost] %s", e.getMessage()));
+            logger.fatal(String.format("[OdooXmlRpc.setHost] %s", e.getMessage()));
         }
         ;
     }
@@ -149,16 +354,16 @@ public class OdooXmlRpc {
      * @return boolean
      */
     public boolean login(String host, String database, String user, String password) {
-        LOGGER.debug(String.format("Starting connection... to %s - %s as %s", host, database, user));
+        logger.debug(String.format("Starting connection... to %s - %s as %s", host, database, user));
         if (host == null || host.isEmpty()) {
-            LOGGER.fatal("[OdooXmlRpc.login] Host should not be empty");
+            logger.fatal("[OdooXmlRpc.login] Host should not be empty");
             return false;
         }
 
         try {
             this.host = new URL(host);
-            commonConfig.setServerURL(new URL(this.host, "/xmlrpc/2/common"));
-            objectConfig.setServerURL(new URL(this.host, "/xmlrpc/2/object"));
+            commonConfig = newConfig(new URL(this.host, "/xmlrpc/2/common"));
+            objectConfig = newConfig(new URL(this.host, "/xmlrpc/2/object"));
 
             Object[] params = new Object[] { database, user, password, new Object[] {} };
             Object res = client.execute(commonConfig, "authenticate", params);
@@ -170,13 +375,13 @@ public class OdooXmlRpc {
             else if (res instanceof Integer)
                 this.uid = (int) res;
         } catch (MalformedURLException urlException) {
-            LOGGER.fatal("[OdooXmlRpc.login] Malformed url.");
+            logger.fatal("[OdooXmlRpc.login] Malformed url.");
             return false;
         } catch (XmlRpcException e) {
-            LOGGER.error("[OdooXmlRpc.login] XmlRpcException. Details" + e.getMessage());
+            logger.error("[OdooXmlRpc.login] XmlRpcException. Details" + e.getMessage());
             return false;
         } catch (Exception e) {
-            LOGGER.error("[OdooXmlRpc.login] Exception. Details: " + e.getMessage());
+            logger.error("[OdooXmlRpc.login] Exception. Details: " + e.getMessage());
             return false;
         }
         return this.uid != -1;
@@ -193,7 +398,7 @@ public class OdooXmlRpc {
         try {
             version = (HashMap<String, Object>) client.execute(commonConfig, "version", new Object[0]);
         } catch (Exception e) {
-            LOGGER.error(e.getMessage());
+            logger.error(e.getMessage());
         }
         return version;
     }
@@ -212,10 +417,14 @@ public class OdooXmlRpc {
         try {
             Object[] params = new Object[] { this.database, this.uid, this.password, modelName, methodName,
                     methodParams };
-            res = client.execute(objectConfig, "execute_kw", params);
+            try {
+                res = client.execute(objectConfig, "execute_kw", params);
+            } finally {
+                invalidateRecords(modelName, methodName, Arrays.asList(methodParams));
+            }
 
         } catch (Exception e) {
-            LOGGER.error("[OdooXmlRpc.executeMethod] Exception during execution of " + modelName + "=>" + methodName
+            logger.error("[OdooXmlRpc.executeMethod] Exception during execution of " + modelName + "=>" + methodName
                     + ". Details: " + e.getMessage());
         }
         return res;
@@ -234,35 +443,92 @@ public class OdooXmlRpc {
         Object res = new Object();
         try {
             Object[] params = new Object[] { this.database, this.uid, this.password, modelName, methodName, args, kw };
-            res = client.execute(objectConfig, "execute_kw", params);
+            try {
+                res = client.execute(objectConfig, "execute_kw", params);
+            } finally {
+                invalidateRecords(modelName, methodName, args);
+            }
 
         } catch (Exception e) {
-            LOGGER.error("[OdooXmlRpc.executeMethod] Exception during execution of " + modelName + "=>" + methodName
+            logger.error("[OdooXmlRpc.executeMethod] Exception during execution of " + modelName + "=>" + methodName
                     + ". Details: " + e.getMessage());
         }
         return res;
     }
 
+    /**
+     * Execute method, errors are thrown instead of logged
+     * 
+     * @param modelName  string
+     * @param methodName string
+     * @param args       list
+     * @param kw         map, may be null
+     * @return Object
+     * @throws XmlRpcException
+     */
+    public Object executeKw(String modelName, String methodName, List args, Map kw) throws XmlRpcException {
+        try {
+            return client.execute(objectConfig, "execute_kw", executeKwParams(modelName, methodName, args, kw));
+        } finally {
+            invalidateRecords(modelName, methodName, args);
+        }
+    }
+
+    Object[] executeKwParams(String modelName, String methodName, List args, Map kw) {
+        return kw == null
+                ? new Object[] { this.database, this.uid, this.password, modelName, methodName, args }
+                : new Object[] { this.database, this.uid, this.password, modelName, methodName, args, kw };
+    }
+
+    /**
+     * Send several calls in one request with system.multicall
+     * 
+     * @param calls list of map {methodName, params}
+     * @return one item per call: a one element array holding the result, or a
+     *         fault map {faultCode, faultString}
+     * @throws XmlRpcException if the server does not support multicall
+     */
+    public Object[] multicall(List<Map<String, Object>> calls) throws XmlRpcException {
+        return (Object[]) client.execute(objectConfig, "system.multicall", new Object[] { calls.toArray() });
+    }
+
     /**
      * List field, type, help of an Odoo model
      * 
      * @param modelName string
      * @return listRecords map
      */
-    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @SuppressWarnings({ "rawtypes" })
     public Map listRecords(String modelName) {
+        return fieldsGet(modelName, Arrays.asList("string", "help", "type"));
+    }
+
+    /**
+     * fields_get of a model, served from the metadata cache when set
+     * 
+     * @param modelName  string
+     * @param attributes list of field attributes to return
+     * @return map field =&gt; attributes, empty on failure
+     */
+    public Map<String, Object> fieldsGet(String modelName, List<String> attributes) {
+        OdooMetadataCache cache = metadataCache;
+        if (cache == null) {
+            return loadFields(modelName, attributes);
+        }
+        String lang = Objects.toString(context.get("lang"), null);
+        return cache.fieldsGet(String.valueOf(host), database, uid, lang, modelName, attributes,
+                () -> loadFields(modelName, attributes));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Map<String, Object> loadFields(String modelName, List<String> attributes) {
         Map result = new HashMap();
         try {
-            client.setConfig(objectConfig);
-            result = (Map<String, Map<String, Object>>) client.execute("execute_kw", Arrays.asList(this.database,
-                    this.uid, this.password, modelName, "fields_get", Arrays.asList(), new HashMap() {
-                        {
-                            put("attributes", Arrays.asList("string", "help", "type"));
-                        }
-                    }));
-
+            Map kw = new HashMap();
+            kw.put("attributes", attributes);
+            result = (Map<String, Object>) executeKw(modelName, "fields_get", Arrays.asList(), kw);
         } catch (Exception e) {
-            LOGGER.error("[OdooXmlRpc.listRecords] Exception when listing Records of " + modelName + ". Details: "
+            logger.error("[OdooXmlRpc.listRecords] Exception when listing Records of " + modelName + ". Details: "
                     + e.getMessage());
         }
         return result;
@@ -278,25 +544,100 @@ public class OdooXmlRpc {
     public Integer createRecord(String modelName, Map data) {
         Integer recordId = -1;
         try {
-            client.setConfig(objectConfig);
-            recordId = (Integer) client.execute("execute_kw",
+            recordId = (Integer) client.execute(objectConfig, "execute_kw",
                     Arrays.asList(this.database, this.uid, this.password, modelName, "create", Arrays.asList(data)));
 
         } catch (Exception e) {
-            LOGGER.error("Exception when creating record in " + modelName + ". Details: "
+            logger.error("Exception when creating record in " + modelName + ". Details: "
                     + e.getMessage());
         }
         return recordId;
     }
 
+    /**
+     * Create several records, DEFAULT_CREATE_CHUNK_SIZE per call (odoo 12+)
+     * 
+     * @param modelName string
+     * @param records   list of map
+     * @return ids in records order, shorter than records if a call failed
+     */
+    public List<Integer> createMany(String modelName, List<? extends Map<String, Object>> records) {
+        return createMany(modelName, records, DEFAULT_CREATE_CHUNK_SIZE);
+    }
+
+    /**
+     * Create several records, chunkSize per call (odoo 12+)
+     * 
+     * @param modelName string
+     * @param records   list of map
+     * @param chunkSize records per create call
+     * @return ids in records order, shorter than records if a call failed
+     */
+    public List<Integer> createMany(String modelName, List<? extends Map<String, Object>> records, int chunkSize) {
+        List<Integer> ids = new ArrayList<>(records.size());
+        for (int start = 0; start < records.size(); start += chunkSize) {
+            List<? extends Map<String, Object>> chunk = records.subList(start,
+                    Math.min(start + chunkSize, records.size()));
+            try {
+                Object created = executeKw(modelName, "create", Arrays.asList(chunk), null);
+                if (created instanceof Object[]) {
+                    for (Object id : (Object[]) created) {
+                        ids.add((Integer) id);
+                    }
+                } else {
+                    ids.add((Integer) created);
+                }
+            } catch (Exception e) {
+                logger.error("Exception when creating records " + start + "-" + (start + chunk.size() - 1) + " in "
+                        + modelName + ", " + ids.size() + " created. Details: " + e.getMessage());
+                break;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Update records
+     * 
+     * @param modelName string
+     * @param ids       list of existing ids
+     * @param data      map of field values
+     * @return true on success
+     * @throws XmlRpcException odoo fault or transport failure
+     */
+    public boolean write(String modelName, List<Integer> ids, Map<String, Object> data) throws XmlRpcException {
+        return Boolean.TRUE.equals(executeKw(modelName, "write", Arrays.asList(ids, data), null));
+    }
+
+    /**
+     * Batch record updates, see OdooWriteBatcher. Records refused by odoo are isolated,
+     * a call that failed without an answer fails its whole group.
+     * 
+     * @return OdooWriteBatcher to close once done
+     */
+    public OdooWriteBatcher writeBatcher() {
+        return new OdooWriteBatcher((modelName, ids, data) -> {
+            try {
+                return write(modelName, ids, data);
+            } catch (XmlRpcException e) {
+                if (!XmlRpcHttpClientTransport.isFault(e)) {
+                    throw e;
+                }
+                logger.warn("Odoo refused the update of " + modelName + " " + ids + ". Details: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
     public void updateRecord(String modelName, Map<String, Object> data, List<Integer> ids) {
         try {
-            client.setConfig(objectConfig);
-            client.execute("execute_kw", Arrays.asList(this.database, this.uid, this.password, modelName, "write",
-                    Arrays.asList(ids, data)));
+            client.execute(objectConfig, "execute_kw", Arrays.asList(this.database, this.uid, this.password,
+                    modelName, "write", Arrays.asList(ids, data)));
 
         } catch (Exception e) {
-            LOGGER.error("Exception when updating record. Details: " + e.getMessage());
+            logger.error("Exception when updating record. Details: " + e.getMessage());
+        } finally {
+            invalidateRecords(modelName, "write", Arrays.asList(ids));
         }
     }
 
@@ -311,29 +652,93 @@ public class OdooXmlRpc {
         updateRecord(modelName, data, Arrays.asList(id));
     }
 
+    /**
+     * Read one record, served from the record cache when set
+     * 
+     * @param modelName string
+     * @param id        integer
+     * @param fields    list of field names
+     * @return record map, empty if not found
+     */
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public Map getRecordById(String modelName, int id, List fields) {
+        OdooRecordCache cache = recordCache;
+        if (cache != null) {
+            Map<String, Object> cached = cache.get(modelName, id, fields);
+            if (cached != null) {
+                return cached;
+            }
+        }
         Map<String, Object> record = new HashMap<>();
+        long generation = cache == null ? 0 : cache.getGeneration(modelName);
         try {
-            List filters = new ArrayList();
-            filters.add(Arrays.asList("id", "=", String.valueOf(id)));
-            List records = getRecords(modelName, fields, filters);
+            OdooRecordLoader loader = recordLoader;
+            List records;
+            if (loader != null) {
+                Map loaded = loader.get(modelName, id, (List<String>) fields);
+                records = loaded == null ? Collections.emptyList() : Collections.singletonList(loaded);
+            } else {
+                List filters = new ArrayList();
+                filters.add(Arrays.asList("id", "=", String.valueOf(id)));
+                records = getRecords(modelName, fields, filters);
+            }
             if (records.size() == 1) {
                 record = (Map<String, Object>) records.get(0);
+                if (cache != null) {
+                    cache.put(modelName, fields, record, generation);
+                }
             }
         } catch (Exception e) {
-            LOGGER.error("[OdooXmlRpc.getRecordById] Exception when getting record no" + String.valueOf(id) + " in "
+            logger.error("[OdooXmlRpc.getRecordById] Exception when getting record no" + String.valueOf(id) + " in "
                     + modelName + ". Details: " + e.getMessage());
         }
         return record;
     }
 
+    /**
+     * Read records by id, errors are thrown instead of logged
+     * 
+     * @param model  string
+     * @param fields list of field names, null for all fields
+     * @param ids    list of record ids
+     * @return records found, in ids order
+     * @throws XmlRpcException
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public List<Map> readRecords(String model, List<String> fields, List<Integer> ids) throws XmlRpcException {
+        Map kw = new HashMap();
+        if (fields != null && !fields.isEmpty()) {
+            kw.put("fields", fields);
+        }
+        Object[] records = (Object[]) executeKw(model, "read", Arrays.asList(ids), kw);
+        List<Map> result = new ArrayList<>(records.length);
+        for (Object record : records) {
+            result.add((Map) record);
+        }
+        return result;
+    }
+
     @SuppressWarnings({ "rawtypes" })
     public List getRecords(String model, List fields) {
         return getRecords(model, fields, null);
     }
 
     public List getRecords(String model, List fields, List<List> filters) {
+        return getRecords(model, fields, filters, 0, 0, null);
+    }
+
+    /**
+     * search_read with paging
+     * 
+     * @param model   string
+     * @param fields  list, default id and name
+     * @param filters list of list
+     * @param offset  integer
+     * @param limit   integer, 0 for all
+     * @param order   string, null for model default order
+     * @return list of map
+     */
+    public List getRecords(String model, List fields, List<List> filters, int offset, int limit, String order) {
         List result = new ArrayList();
         if (fields == null)
             fields = Arrays.asList("id", "name");
@@ -348,24 +753,128 @@ public class OdooXmlRpc {
         }
 
         try {
-            client.setConfig(objectConfig);
-            List finalFields = fields;
-            result = Arrays.asList((Object[]) client.execute("execute_kw", Arrays.asList(this.database, this.uid,
-                    this.password, model, "search_read", Arrays.asList(AllFilters), new HashMap() {
-                        {
-                            put("fields", finalFields);
-                            put("context", context);
-                        }
-                    }
-
-            )));
-
+            result = searchRead(model, fields, AllFilters, offset, limit, order);
         } catch (Exception e) {
-            LOGGER.error(String.format("[OdooXmlRpc.getRecords] Exception. Details: %s", e.getMessage()));
+            logger.error(String.format("[OdooXmlRpc.getRecords] Exception. Details: %s", e.getMessage()));
         }
         return result;
     }
 
+    private List searchRead(String model, List fields, List filters, int offset, int limit, String order)
+            throws XmlRpcException {
+        return Arrays.asList((Object[]) client.execute(objectConfig, "execute_kw",
+                Arrays.asList(this.database, this.uid,
+                this.password, model, "search_read", Arrays.asList(filters), new HashMap() {
+                    {
+                        put("fields", fields);
+                        put("context", context);
+                        if (offset > 0)
+                            put("offset", offset);
+                        if (limit > 0)
+                            put("limit", limit);
+                        if (order != null)
+                            put("order", order);
+                    }
+                }
+
+        )));
+    }
+
+    /**
+     * Page fetcher of iterators and change feeds: a failed call is thrown, not taken for the last page
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private OdooRecordIterator.PageFetcher pageFetcher(String model, List<String> fields, String order) {
+        return (domain, limit) -> {
+            try {
+                return searchRead(model, fields, domain, 0, limit, order);
+            } catch (XmlRpcException e) {
+                throw new IllegalStateException("search_read of " + model + " failed. " + e.getMessage(), e);
+            }
+        };
+    }
+
+    /**
+     * Lazily iterate over all matching records, pageSize records per request.
+     * The next page is prefetched while the current one is consumed.
+     * 
+     * @param model    string
+     * @param fields   list, id is added when missing
+     * @param filters  list of list
+     * @param pageSize integer
+     * @return OdooRecordIterator
+     */
+    @SuppressWarnings({ "rawtypes" })
+    public OdooRecordIterator iterateRecords(String model, List<String> fields, List<List> filters, int pageSize) {
+        List<String> pageFields = OdooRecordIterator.withId(fields == null ? Arrays.asList("id", "name") : fields);
+        return new OdooRecordIterator(
+                pageFetcher(model, pageFields, "id asc"),
+                filters,
+                pageSize);
+    }
+
+    /**
+     * Stream all matching records, see iterateRecords
+     */
+    public Stream<Map<String, Object>> streamRecords(String model, List<String> fields, List<List> filters,
+            int pageSize) {
+        return iterateRecords(model, fields, filters, pageSize).stream();
+    }
+
+    /**
+     * Records inserted or updated after a watermark, see OdooChangeFeed
+     * 
+     * @param model     string
+     * @param fields    fields to read, null for all
+     * @param watermark last saved watermark, null for a full sync
+     * @return stream of INSERT/UPDATE events in (write_date, id) order
+     */
+    public Stream<OdooChangeEvent> changesSince(String model, List<String> fields, OdooWatermark watermark) {
+        return changeFeed(model, fields, null, watermark, OdooChangeFeed.DEFAULT_PAGE_SIZE).stream();
+    }
+
+    /**
+     * @param model     string
+     * @param fields    fields to read, null for all
+     * @param filters   extra filters, may be null
+     * @param watermark last saved watermark, null for a full sync
+     * @param pageSize  records per request
+     * @return change feed, its watermark follows the events read
+     */
+    @SuppressWarnings({ "rawtypes" })
+    public OdooChangeFeed changeFeed(String model, List<String> fields, List<List> filters, OdooWatermark watermark,
+            int pageSize) {
+        List<String> syncFields = OdooChangeFeed.withSyncFields(fields);
+        return new OdooChangeFeed(model,
+                pageFetcher(model, syncFields, OdooChangeFeed.ORDER),
+                filters,
+                watermark,
+                pageSize);
+    }
+
+    /**
+     * Delete events for the known ids that no longer exist, archived records are not deleted
+     * 
+     * @param model    string
+     * @param knownIds ids synced so far
+     * @return DELETE events
+     */
+    public List<OdooChangeEvent> tombstones(String model, Collection<Integer> knownIds) {
+        return OdooChangeFeed.tombstones(model, knownIds, ids -> {
+            Map<String, Object> searchContext = new HashMap<>(context);
+            searchContext.put("active_test", false);
+            Map<String, Object> kw = new HashMap<>();
+            kw.put("context", searchContext);
+            Object[] found = (Object[]) executeKw(model, "search",
+                    Arrays.asList(Arrays.asList(Arrays.asList("id", "in", ids))), kw);
+            List<Integer> existing = new ArrayList<>(found.length);
+            for (Object id : found) {
+                existing.add((Integer) id);
+            }
+            return existing;
+        }, OdooChangeFeed.DEFAULT_PAGE_SIZE);
+    }
+
     public List<Integer> searchRecords(String model, List<List> filters) {
         return searchRecords(model, filters, false);
     }
@@ -373,8 +882,8 @@ public class OdooXmlRpc {
     public List<Integer> searchRecords(String model, List<List> filters, boolean onlyActive) {
         List<Integer> ids = new ArrayList<>();
         try {
-            client.setConfig(objectConfig);
-            List<Object> result = Arrays.asList((Object[]) client.execute("execute_kw", Arrays.asList(this.database,
+            List<Object> result = Arrays.asList((Object[]) client.execute(objectConfig, "execute_kw",
+                    Arrays.asList(this.database,
                     this.uid, this.password, model, "search", Arrays.asList(filters), new HashMap<String, Object>() {
                         {
                             put("context", new HashMap<String, Object>() {
@@ -389,7 +898,7 @@ public class OdooXmlRpc {
                     ids.add((Integer) element);
             });
         } catch (Exception e) {
-            LOGGER.error("[OdooXmlRpc.searchRecords] Exception when searching record in model " + model + ". Details: "
+            logger.error("[OdooXmlRpc.searchRecords] Exception when searching record in model " + model + ". Details: "
                     + e.getMessage());
         }
         return ids;
@@ -0,0 +1,278 @@
+package com.navds;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.xmlrpc.XmlRpcException;
+
+/**
+ * Queue execute_kw calls and flush them in as few requests as possible.
+ * A flush happens when flushSize calls are queued, when the oldest queued call
+ * is older than flushTimeoutMillis, or on flush()/close().
+ *
+ * With multicall on, a flush is a single system.multicall request. Odoo does not
+ * expose system.multicall on /xmlrpc/2/object, so by default (or if the server
+ * answers that the method does not exist) the calls of a flush are pipelined, maxInFlight
+ * at a time. Any other multicall failure completes the futures of the flush exceptionally.
+ *
+ * try (OdooXmlRpcBatch batch = new OdooXmlRpcBatch(odoo)) {
+ *     prices.forEach((id, price) -&gt; batch.add("product.pricelist.item", "write", Arrays.asList(Arrays.asList(id), price), null));
+ * }
+ */
+public class OdooXmlRpcBatch implements AutoCloseable {
+    private final static Log LOGGER = LogFactory.getLog(OdooXmlRpcBatch.class);
+
+    /**
+     * Outcome of one call
+     */
+    public static class Result {
+        private final Object value;
+        private final Throwable error;
+
+        Result(Object value, Throwable error) {
+            this.value = value;
+            this.error = error;
+        }
+        public boolean isOkay() {
+            return this.error == null;
+        }
+        public Object getValue() {
+            return this.value;
+        }
+        public Throwable getError() {
+            return this.error;
+        }
+    }
+
+    private static class Call {
+        private final String model;
+        private final String method;
+        private final List args;
+        private final Map kw;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        Call(String model, String method, List args, Map kw) {
+            this.model = model;
+            this.method = method;
+            this.args = args;
+            this.kw = kw;
+        }
+    }
+
+    private final OdooXmlRpc odoo;
+    private final ExecutorService executor = OdooExecutors.newRpcExecutor("odoo-xmlrpc-batch");
+    private ScheduledExecutorService timer;
+    private ScheduledFuture<?> scheduledFlush;
+    private List<Call> queue = new ArrayList<>();
+    private int flushSize = 100;
+    private long flushTimeoutMillis = 0;
+    private int maxInFlight = 8;
+    private volatile boolean multicall = false;
+
+    public OdooXmlRpcBatch(OdooXmlRpc odoo) {
+        this.odoo = odoo;
+    }
+
+    public void setFlushSize(int flushSize) {
+        this.flushSize = flushSize;
+    }
+    public int getFlushSize() {
+        return this.flushSize;
+    }
+    /**
+     * Flush queued calls at the latest this long after the first one was queued, 0 to disable
+     * @param flushTimeoutMillis
+     */
+    public void setFlushTimeoutMillis(long flushTimeoutMillis) {
+        this.flushTimeoutMillis = flushTimeoutMillis;
+    }
+    public long getFlushTimeoutMillis() {
+        return this.flushTimeoutMillis;
+    }
+    /**
+     * Max concurrent requests of a pipelined flush
+     * @param maxInFlight
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+    /**
+     * Send each flush as one system.multicall request
+     * @param multicall
+     */
+    public void setMulticall(boolean multicall) {
+        this.multicall = multicall;
+    }
+    public boolean isMulticall() {
+        return this.multicall;
+    }
+
+    /**
+     * Queue an execute_kw call
+     * @param model  string
+     * @param method string
+     * @param args   list
+     * @param kw     map, may be null
+     * @return future result, completed exceptionally with the server fault
+     */
+    public CompletableFuture<Object> add(String model, String method, List args, Map kw) {
+        Call call = new Call(model, method, args, kw);
+        List<Call> full = null;
+        synchronized (this) {
+            queue.add(call);
+            if (queue.size() >= flushSize) {
+                full = drain();
+            } else if (queue.size() == 1 && flushTimeoutMillis > 0) {
+                if (timer == null) {
+                    timer = Executors.newSingleThreadScheduledExecutor(OdooExecutors.daemonThreadFactory("odoo-xmlrpc-flush"));
+                }
+                scheduledFlush = timer.schedule(this::flush, flushTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return call.future;
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    /**
+     * Send queued calls and wait for them
+     * @return results of the flushed calls, in queue order
+     */
+    public List<Result> flush() {
+        List<Call> calls;
+        synchronized (this) {
+            calls = drain();
+        }
+        send(calls);
+        List<Result> results = new ArrayList<>(calls.size());
+        for (Call call : calls) {
+            try {
+                results.add(new Result(call.future.join(), null));
+            } catch (CompletionException e) {
+                results.add(new Result(null, e.getCause()));
+            }
+        }
+        return results;
+    }
+
+    // caller holds the lock
+    private List<Call> drain() {
+        List<Call> calls = queue;
+        queue = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return calls;
+    }
+
+    private void send(List<Call> calls) {
+        if (calls.isEmpty()) {
+            return;
+        }
+        if (multicall) {
+            try {
+                sendMulticall(calls);
+                return;
+            } catch (XmlRpcException e) {
+                if (!isMethodNotFound(e)) {
+                    // the server may have applied the calls, sending them again could apply them twice
+                    LOGGER.warn("system.multicall failed. " + e.getMessage());
+                    calls.forEach(call -> call.future.completeExceptionally(e));
+                    return;
+                }
+                LOGGER.warn("system.multicall not supported, falling back to pipelined calls. " + e.getMessage());
+                multicall = false;
+            }
+        }
+        OdooBoundedExecutor bounded = new OdooBoundedExecutor(executor, maxInFlight);
+        List<CompletableFuture<Object>> futures = new ArrayList<>(calls.size());
+        for (Call call : calls) {
+            futures.add(bounded.submit(() -> {
+                try {
+                    return odoo.executeKw(call.model, call.method, call.args, call.kw);
+                } catch (XmlRpcException e) {
+                    throw new CompletionException(e);
+                }
+            }));
+        }
+        for (int i = 0; i < calls.size(); i++) {
+            CompletableFuture<Object> target = calls.get(i).future;
+            futures.get(i).whenComplete((value, error) -> {
+                if (error != null) {
+                    target.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+                } else {
+                    target.complete(value);
+                }
+            });
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+    }
+
+    // odoo answers "Method not available system.multicall", other servers -32601 (method not found)
+    static boolean isMethodNotFound(XmlRpcException e) {
+        return XmlRpcHttpClientTransport.isFault(e)
+                && (e.code == -32601 || String.valueOf(e.getMessage()).contains("system.multicall"));
+    }
+
+    private void sendMulticall(List<Call> calls) throws XmlRpcException {
+        List<Map<String, Object>> requests = new ArrayList<>(calls.size());
+        for (Call call : calls) {
+            Map<String, Object> request = new HashMap<>();
+            request.put("methodName", "execute_kw");
+            request.put("params", odoo.executeKwParams(call.model, call.method, call.args, call.kw));
+            requests.add(request);
+        }
+        Object[] responses;
+        try {
+            responses = odoo.multicall(requests);
+        } finally {
+            calls.forEach(call -> odoo.invalidateRecords(call.model, call.method, call.args));
+        }
+        for (int i = 0; i < calls.size(); i++) {
+            Object response = i < responses.length ? responses[i] : null;
+            CompletableFuture<Object> future = calls.get(i).future;
+            if (response instanceof Object[] && ((Object[]) response).length == 1) {
+                future.complete(((Object[]) response)[0]);
+            } else if (response instanceof Map) {
+                Map fault = (Map) response;
+                Object code = fault.get("faultCode");
+                future.completeExceptionally(new XmlRpcException(code instanceof Integer ? (Integer) code : 0,
+                        String.valueOf(fault.get("faultString"))));
+            } else {
+                future.completeExceptionally(new XmlRpcException("Missing multicall response"));
+            }
+        }
+    }
+
+    /**
+     * Flush remaining calls and release threads
+     */
+    @Override
+    public void close() {
+        flush();
+        synchronized (this) {
+            if (timer != null) {
+                timer.shutdown();
+                timer = null;
+            }
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,418 @@
+package com.navds;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.XmlRpcRequest;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientException;
+import org.apache.xmlrpc.client.XmlRpcHttpClientConfig;
+import org.apache.xmlrpc.client.XmlRpcHttpTransport;
+import org.apache.xmlrpc.client.XmlRpcHttpTransportException;
+import org.apache.xmlrpc.common.XmlRpcStreamRequestConfig;
+import org.xml.sax.SAXException;
+
+/**
+ * XML-RPC transport sending requests through a shared, pooled HttpClient 4 client,
+ * so connections are kept alive and reused across calls.
+ * One transport is created per call by XmlRpcHttpClientTransportFactory.
+ */
+public class XmlRpcHttpClientTransport extends XmlRpcHttpTransport {
+    private final static String USER_AGENT_HTTPCLIENT = USER_AGENT + " (Apache HttpClient 4)";
+    // odoo faults carry the exception name at the start of the message or on the last line of the traceback
+    private final static Pattern ODOO_EXCEPTION = Pattern.compile(
+            "^([A-Za-z_][\\w.]*(?:Error|Exception|Denied|Warning))\\b");
+    private final CloseableHttpClient httpClient;
+    private XmlRpcHttpClientConfig config;
+    private HttpPost post;
+    private CloseableHttpResponse response;
+    private int contentLength = -1;
+    private int compressionThreshold = -1;
+    private OdooMetrics metrics = OdooMetrics.NOOP;
+    private long requestBytes;
+    private CountingInputStream responseStream;
+    private OdooTracer tracer;
+    private OdooTracer.Span span;
+    private OdooRetryPolicy retryPolicy;
+    private OdooCircuitBreaker circuitBreaker;
+    private String retryAfter;
+
+    public XmlRpcHttpClientTransport(XmlRpcClient client, CloseableHttpClient httpClient) {
+        super(client, USER_AGENT_HTTPCLIENT);
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Gzip request bodies of at least this many bytes, -1 to never compress
+     * @param compressionThreshold
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Metrics the call is reported to, model and method are taken from execute_kw/execute parameters
+     * @param metrics
+     */
+    public void setMetrics(OdooMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Tracer sampling the call, null to disable
+     * @param tracer
+     */
+    public void setTracer(OdooTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Retry policy applied to the call, null to never retry
+     * @param retryPolicy
+     */
+    public void setRetryPolicy(OdooRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Circuit breaker of the server, null to disable
+     * @param circuitBreaker
+     */
+    public void setCircuitBreaker(OdooCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    private static boolean isModelCall(XmlRpcRequest request) {
+        String method = request.getMethodName();
+        return ("execute_kw".equals(method) || "execute".equals(method)) && request.getParameterCount() > 4;
+    }
+
+    private static String modelOf(XmlRpcRequest request) {
+        return isModelCall(request) ? String.valueOf(request.getParameter(3)) : OdooMetrics.NONE;
+    }
+
+    // odoo method of execute_kw/execute, xml-rpc method otherwise
+    private static String methodOf(XmlRpcRequest request) {
+        return isModelCall(request) ? String.valueOf(request.getParameter(4)) : request.getMethodName();
+    }
+
+    /**
+     * Method checked against the idempotent methods of the retry policy: the odoo method of a model call,
+     * OdooMetrics.NONE for /xmlrpc/2/common (version, authenticate), and for system.multicall the first
+     * inner method that is not idempotent, the server may have applied the calls before the failure.
+     */
+    private String retryMethod(XmlRpcRequest request) {
+        if (isModelCall(request)) {
+            return methodOf(request);
+        }
+        String endpoint = ((XmlRpcHttpClientConfig) request.getConfig()).getServerURL().getPath();
+        if (endpoint.endsWith("/common")) {
+            return OdooMetrics.NONE;
+        }
+        String method = request.getMethodName();
+        if (!"system.multicall".equals(method) || request.getParameterCount() != 1
+                || !(request.getParameter(0) instanceof Object[]) || retryPolicy == null) {
+            return method;
+        }
+        Object[] calls = (Object[]) request.getParameter(0);
+        String retryMethod = method;
+        for (Object call : calls) {
+            Object params = call instanceof Map ? ((Map<?, ?>) call).get("params") : null;
+            if (!(params instanceof Object[]) || ((Object[]) params).length < 5
+                    || !"execute_kw".equals(((Map<?, ?>) call).get("methodName"))) {
+                return method;
+            }
+            retryMethod = String.valueOf(((Object[]) params)[4]);
+            if (!retryPolicy.isIdempotent(retryMethod)) {
+                return retryMethod;
+            }
+        }
+        return retryMethod;
+    }
+
+    @Override
+    public Object sendRequest(XmlRpcRequest request) throws XmlRpcException {
+        if (retryPolicy == null && circuitBreaker == null) {
+            return sendMeasured(request);
+        }
+        String method = retryMethod(request);
+        for (int attempt = 1;; attempt++) {
+            if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+                throw new XmlRpcClientException(String.format("Circuit open for %s, %s.%s not sent",
+                    circuitBreaker.getName(), modelOf(request), methodOf(request)), null);
+            }
+            retryAfter = null;
+            XmlRpcException error;
+            // anything but an answer of the server, runtime exceptions included, counts as a failure
+            boolean failed = true;
+            try {
+                Object result = sendMeasured(request);
+                failed = false;
+                return result;
+            } catch (XmlRpcException e) {
+                IOException failure = transportFailure(e);
+                int status = e instanceof XmlRpcHttpTransportException
+                    ? ((XmlRpcHttpTransportException) e).getStatusCode() : -1;
+                failed = failure != null || OdooRetryPolicy.isTransientStatus(status);
+                if (!failed || retryPolicy == null || !retryPolicy.shouldRetry(method, attempt, failure, status)) {
+                    throw e;
+                }
+                error = e;
+            } finally {
+                if (circuitBreaker != null) {
+                    if (failed) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                }
+            }
+            long delay = retryPolicy.delayMillis(attempt, retryAfter);
+            if (delay < 0 || !OdooRetryPolicy.sleep(delay)) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * XmlRpcStreamTransport wraps the IOException of httpClient.execute (connection refused,
+     * no response, read timeout) in a plain XmlRpcException, reading errors are XmlRpcClientException
+     * @param e
+     * @return IOException cause when no answer was received, null otherwise
+     */
+    static IOException transportFailure(XmlRpcException e) {
+        return e.getCause() instanceof IOException ? (IOException) e.getCause() : null;
+    }
+
+    /**
+     * @param e
+     * @return true for a fault answered by the server, false for transport, http and parsing errors
+     */
+    static boolean isFault(XmlRpcException e) {
+        return !(e instanceof XmlRpcClientException) && !(e instanceof XmlRpcHttpTransportException)
+            && transportFailure(e) == null;
+    }
+
+    private Object sendMeasured(XmlRpcRequest request) throws XmlRpcException {
+        if (metrics == OdooMetrics.NOOP && tracer == null) {
+            return send(request);
+        }
+        String endpoint = ((XmlRpcHttpClientConfig) request.getConfig()).getServerURL().getPath();
+        String model = modelOf(request);
+        String method = methodOf(request);
+        requestBytes = 0;
+        responseStream = null;
+        String error = null;
+        span = tracer == null ? null : tracer.start(endpoint, model, method);
+        metrics.callStarted(endpoint, model, method);
+        long start = System.nanoTime();
+        try {
+            return send(request);
+        } catch (XmlRpcException e) {
+            error = errorName(e);
+            throw e;
+        } catch (RuntimeException e) {
+            error = e.getClass().getName();
+            throw e;
+        } finally {
+            metrics.callFinished(endpoint, model, method, System.nanoTime() - start, requestBytes,
+                responseStream == null ? 0 : responseStream.getCount(), error);
+            if (span != null) {
+                span.finish(error);
+            }
+        }
+    }
+
+    /**
+     * @param e
+     * @return odoo exception name of a fault, http_STATUS or the exception name of a transport failure
+     */
+    static String errorName(XmlRpcException e) {
+        if (e instanceof XmlRpcHttpTransportException) {
+            return "http_" + ((XmlRpcHttpTransportException) e).getStatusCode();
+        }
+        if (transportFailure(e) != null) {
+            return e.getCause().getClass().getName();
+        }
+        if (e instanceof XmlRpcClientException) {
+            return (e.getCause() == null ? e : e.getCause()).getClass().getName();
+        }
+        String message = e.getMessage() == null ? "" : e.getMessage().trim();
+        Matcher matcher = ODOO_EXCEPTION.matcher(message.substring(message.lastIndexOf('\n') + 1));
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        matcher = ODOO_EXCEPTION.matcher(message);
+        return matcher.find() ? matcher.group(1) : "xmlrpc_fault_" + e.code;
+    }
+
+    private Object send(XmlRpcRequest request) throws XmlRpcException {
+        config = (XmlRpcHttpClientConfig) request.getConfig();
+        try {
+            post = new HttpPost(config.getServerURL().toURI());
+        } catch (URISyntaxException e) {
+            throw new XmlRpcClientException("Invalid server url " + config.getServerURL(), e);
+        }
+        if (config.getConnectionTimeout() > 0 || config.getReplyTimeout() > 0) {
+            RequestConfig.Builder requestConfig = RequestConfig.custom();
+            if (config.getConnectionTimeout() > 0) {
+                requestConfig.setConnectTimeout(config.getConnectionTimeout());
+            }
+            if (config.getReplyTimeout() > 0) {
+                requestConfig.setSocketTimeout(config.getReplyTimeout());
+            }
+            post.setConfig(requestConfig.build());
+        }
+        return super.sendRequest(request);
+    }
+
+    @Override
+    protected void setRequestHeader(String header, String value) {
+        // HttpClient computes Content-Length from the entity
+        if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header)) {
+            post.setHeader(header, value);
+        }
+    }
+
+    @Override
+    protected void setContentLength(int contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    @Override
+    protected void writeRequest(final ReqWriter writer) throws XmlRpcException, IOException, SAXException {
+        if (compressionThreshold >= 0 && contentLength >= compressionThreshold) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(contentLength / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                writer.write(span == null ? gzip : span.teeRequest(gzip));
+            }
+            ByteArrayEntity entity = new ByteArrayEntity(compressed.toByteArray());
+            entity.setContentEncoding("gzip");
+            requestBytes = entity.getContentLength();
+            post.setEntity(entity);
+        } else {
+            post.setEntity(newStreamingEntity(writer));
+        }
+        try {
+            response = httpClient.execute(post);
+        } catch (RequestWriteException e) {
+            if (e.getCause() instanceof XmlRpcException) {
+                throw (XmlRpcException) e.getCause();
+            }
+            throw (SAXException) e.getCause();
+        }
+        int status = response.getStatusLine().getStatusCode();
+        if (status < HttpStatus.SC_OK || status > 299) {
+            String reason = response.getStatusLine().getReasonPhrase();
+            if (response.getFirstHeader(HttpHeaders.RETRY_AFTER) != null) {
+                retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER).getValue();
+            }
+            close();
+            throw new XmlRpcHttpTransportException(status, reason,
+                    "HTTP server returned unexpected status: " + reason);
+        }
+    }
+
+    private HttpEntity newStreamingEntity(final ReqWriter writer) {
+        return new AbstractHttpEntity() {
+            public boolean isRepeatable() {
+                return false;
+            }
+            public long getContentLength() {
+                return contentLength;
+            }
+            public InputStream getContent() {
+                throw new UnsupportedOperationException();
+            }
+            public void writeTo(OutputStream out) throws IOException {
+                try {
+                    writer.write(new FilterOutputStream(span == null ? out : span.teeRequest(out)) {
+                        @Override
+                        public void write(int b) throws IOException {
+                            requestBytes++;
+                            out.write(b);
+                        }
+
+                        @Override
+                        public void write(byte[] b, int off, int len) throws IOException {
+                            requestBytes += len;
+                            out.write(b, off, len);
+                        }
+                    });
+                } catch (XmlRpcException | SAXException e) {
+                    throw new RequestWriteException(e);
+                }
+            }
+            public boolean isStreaming() {
+                return false;
+            }
+        };
+    }
+
+    @Override
+    protected InputStream getInputStream() throws XmlRpcException {
+        try {
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                throw new XmlRpcClientException("Empty response from server", null);
+            }
+            InputStream content = entity.getContent();
+            responseStream = new CountingInputStream(span == null ? content : span.teeResponse(content));
+            return responseStream;
+        } catch (IOException e) {
+            throw new XmlRpcClientException("I/O error while reading the response: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected boolean isResponseGzipCompressed(XmlRpcStreamRequestConfig config) {
+        // HttpClient removes Content-Encoding once it has decompressed the entity
+        return response != null && response.getFirstHeader(HttpHeaders.CONTENT_ENCODING) != null
+                && "gzip".equalsIgnoreCase(response.getFirstHeader(HttpHeaders.CONTENT_ENCODING).getValue());
+    }
+
+    /**
+     * Read what is left of the response so the connection goes back to the pool
+     */
+    @Override
+    protected void close() throws XmlRpcClientException {
+        if (response == null) {
+            return;
+        }
+        try {
+            EntityUtils.consume(response.getEntity());
+            response.close();
+        } catch (IOException e) {
+            throw new XmlRpcClientException("Unable to release the connection: " + e.getMessage(), e);
+        } finally {
+            response = null;
+        }
+    }
+
+    private static class RequestWriteException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        RequestWriteException(Exception cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.navds;
+
+import java.util.function.Supplier;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcTransport;
+import org.apache.xmlrpc.client.XmlRpcTransportFactoryImpl;
+
+/**
+ * Factory of XmlRpcHttpClientTransport sharing one pooled HttpClient
+ */
+public class XmlRpcHttpClientTransportFactory extends XmlRpcTransportFactoryImpl {
+    private final Supplier<CloseableHttpClient> httpClient;
+    private volatile int compressionThreshold = -1;
+    private volatile OdooMetrics metrics = OdooMetrics.NOOP;
+    private volatile OdooTracer tracer;
+    private volatile OdooRetryPolicy retryPolicy;
+    private volatile OdooCircuitBreaker circuitBreaker;
+
+    public XmlRpcHttpClientTransportFactory(XmlRpcClient client, CloseableHttpClient httpClient) {
+        this(client, () -> httpClient);
+    }
+
+    /**
+     * @param client
+     * @param httpClient called for every request, allows a lazily created client
+     */
+    public XmlRpcHttpClientTransportFactory(XmlRpcClient client, Supplier<CloseableHttpClient> httpClient) {
+        super(client);
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Gzip request bodies of at least this many bytes, -1 to never compress
+     * @param compressionThreshold
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Metrics every call is reported to
+     * @param metrics
+     */
+    public void setMetrics(OdooMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Tracer sampling every call, null to disable
+     * @param tracer
+     */
+    public void setTracer(OdooTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Retry policy applied to every call, null to never retry
+     * @param retryPolicy
+     */
+    public void setRetryPolicy(OdooRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Circuit breaker checked before every call, null to disable
+     * @param circuitBreaker
+     */
+    public void setCircuitBreaker(OdooCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public XmlRpcTransport getTransport() {
+        XmlRpcHttpClientTransport transport = new XmlRpcHttpClientTransport(getClient(), httpClient.get());
+        transport.setCompressionThreshold(compressionThreshold);
+        transport.setMetrics(metrics);
+        transport.setTracer(tracer);
+        transport.setRetryPolicy(retryPolicy);
+        transport.setCircuitBreaker(circuitBreaker);
+        return transport;
+    }
+}
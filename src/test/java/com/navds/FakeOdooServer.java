@@ -0,0 +1,490 @@
+package com.navds;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.common.TypeFactoryImpl;
+import org.apache.xmlrpc.common.XmlRpcHttpRequestConfigImpl;
+import org.apache.xmlrpc.parser.XmlRpcRequestParser;
+import org.apache.xmlrpc.serializer.CharSetXmlWriterFactory;
+import org.apache.xmlrpc.serializer.XmlRpcWriter;
+import org.apache.xmlrpc.util.SAXParsers;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import com.navds.FakeOdooStore.FakeOdooException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for an odoo server, for tests and load tests without a real instance.
+ * Answers the JSON-RPC endpoints (/web/session/*, /web/dataset/call_kw, /web/dataset/search_read,
+ * /web/database/list) and XML-RPC /xmlrpc/2/common and /xmlrpc/2/object from a FakeOdooStore.
+ * Latency and error rates can be set to exercise retries and timeouts.
+ * Requests run on virtual threads when available.
+ */
+public class FakeOdooServer implements AutoCloseable {
+    private final static Log LOGGER = LogFactory.getLog(FakeOdooServer.class);
+    private final static int BACKLOG = 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor = OdooExecutors.newVirtualThreadExecutor("fake-odoo");
+    private final FakeOdooStore store;
+    private final XmlRpcClient xmlController = new XmlRpcClient();
+    private final XmlRpcHttpRequestConfigImpl xmlConfig = new XmlRpcHttpRequestConfigImpl();
+    private final CharSetXmlWriterFactory xmlWriterFactory = new CharSetXmlWriterFactory();
+    private final AtomicLong requestCount = new AtomicLong();
+    private String database = "odoo";
+    private String user = "admin";
+    private String password = "admin";
+    private int uid = 2;
+    private volatile long latencyMillis;
+    private volatile long latencyJitterMillis;
+    private volatile double errorRate;
+    private volatile double httpErrorRate;
+    private volatile int retryAfterSeconds = 1;
+    private final AtomicInteger failNext = new AtomicInteger();
+    private final AtomicInteger dropNext = new AtomicInteger();
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Start a server on a free local port with an empty store
+     * @throws IOException
+     */
+    public FakeOdooServer() throws IOException {
+        this(new FakeOdooStore(), 0);
+    }
+
+    /**
+     * Start a server
+     * @param store records served
+     * @param port 0 for a free port
+     * @throws IOException
+     */
+    public FakeOdooServer(FakeOdooStore store, int port) throws IOException {
+        this.store = store;
+        this.xmlConfig.setEnabledForExtensions(true);
+        // without it small answers wait for the client's delayed ack (~40ms)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), BACKLOG);
+        server.createContext("/web/", this::handleJson);
+        server.createContext("/xmlrpc/2/common", exchange -> handleXml(exchange, true));
+        server.createContext("/xmlrpc/2/object", exchange -> handleXml(exchange, false));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @return base url, e.g. http://127.0.0.1:34567
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public FakeOdooStore getStore() {
+        return this.store;
+    }
+
+    /**
+     * Credentials accepted by authenticate
+     * @param database
+     * @param user
+     * @param password
+     * @param uid returned on success
+     */
+    public void setCredentials(String database, String user, String password, int uid) {
+        this.database = database;
+        this.user = user;
+        this.password = password;
+        this.uid = uid;
+    }
+
+    /**
+     * Delay added to every answer
+     * @param latencyMillis fixed part
+     * @param jitterMillis random part, 0 to jitterMillis
+     */
+    public void setLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = jitterMillis;
+    }
+
+    /**
+     * Share of calls answered with an odoo error (JSON-RPC error / XML-RPC fault)
+     * @param errorRate between 0 and 1
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Share of requests answered with HTTP 503 and a Retry-After header, as an overloaded proxy would
+     * @param httpErrorRate between 0 and 1
+     */
+    public void setHttpErrorRate(double httpErrorRate) {
+        this.httpErrorRate = httpErrorRate;
+    }
+
+    /**
+     * Retry-After header of 503 answers
+     * @param retryAfterSeconds 0 to leave the header out
+     */
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Answer the next requests with HTTP 503
+     * @param requests
+     */
+    public void failNext(int requests) {
+        failNext.set(requests);
+    }
+
+    /**
+     * Close the connection without answering the next requests, as a crashing worker would
+     * @param requests
+     */
+    public void dropNext(int requests) {
+        dropNext.set(requests);
+    }
+
+    /**
+     * Forget the sessions opened by authenticate, as a restart or a session timeout would
+     */
+    public void expireSessions() {
+        sessions.clear();
+    }
+
+    /**
+     * @return number of HTTP requests received
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // returns false when the request has been answered with a 503 or dropped
+    private boolean simulate(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        if (dropNext.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+            // no response headers sent yet: closing the exchange closes the connection
+            exchange.close();
+            return false;
+        }
+        long delay = latencyMillis;
+        if (latencyJitterMillis > 0) {
+            delay += ThreadLocalRandom.current().nextLong(latencyJitterMillis + 1);
+        }
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failNext.getAndUpdate(n -> Math.max(n - 1, 0)) > 0
+                || (httpErrorRate > 0 && ThreadLocalRandom.current().nextDouble() < httpErrorRate)) {
+            if (retryAfterSeconds > 0) {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+            }
+            reply(exchange, 503, "text/plain", "Service Unavailable".getBytes(StandardCharsets.UTF_8));
+            return false;
+        }
+        return true;
+    }
+
+    private boolean injectError() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    private void handleJson(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body = readBody(exchange);
+            if (!simulate(exchange)) {
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            JSONObject request;
+            try {
+                request = new JSONObject(new String(body, StandardCharsets.UTF_8));
+            } catch (JSONException e) {
+                // a batch (JSON array) is not supported by odoo either
+                request = null;
+            }
+            JSONObject answer = new JSONObject();
+            answer.put("jsonrpc", "2.0");
+            if (request == null) {
+                answer.put("id", JSONObject.NULL);
+                answer.put("error", error("werkzeug.exceptions.BadRequest", "Invalid JSON-RPC request"));
+            } else {
+                answer.put("id", request.opt("id"));
+                JSONObject params = request.optJSONObject("params");
+                try {
+                    if (!path.startsWith("/web/session/") && !OdooJSONRpc.DBLIST_URI.equals(path)
+                            && !sessions.contains(sessionId(exchange))) {
+                        throw new FakeOdooException("odoo.http.SessionExpiredException", "Session expired");
+                    }
+                    answer.put("result", JSONObject.wrap(json(path, params == null ? new JSONObject() : params)));
+                    if (OdooJSONRpc.AUTH_URI.equals(path)) {
+                        String session = UUID.randomUUID().toString();
+                        sessions.add(session);
+                        exchange.getResponseHeaders().add("Set-Cookie", "session_id=" + session + "; Path=/; HttpOnly");
+                    }
+                } catch (FakeOdooException e) {
+                    answer.put("error", error(e.getName(), e.getMessage()));
+                }
+            }
+            byte[] bytes = answer.toString().getBytes(StandardCharsets.UTF_8);
+            reply(exchange, 200, "application/json", bytes);
+        } catch (RuntimeException e) {
+            LOGGER.error(e.getMessage(), e);
+            reply(exchange, 500, "text/plain", String.valueOf(e).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private Object json(String path, JSONObject params) throws FakeOdooException {
+        if (OdooJSONRpc.AUTH_URI.equals(path)) {
+            if (!authenticate(params.optString("db"), params.optString("login"), params.optString("password"))) {
+                throw new FakeOdooException("odoo.exceptions.AccessDenied", "Access Denied");
+            }
+            return sessionInfo();
+        } else if (OdooJSONRpc.SESSION_URI.equals(path)) {
+            return sessionInfo();
+        } else if (OdooJSONRpc.DBLIST_URI.equals(path)) {
+            return Collections.singletonList(database);
+        } else if (OdooJSONRpc.MODULES_URI.equals(path)) {
+            return Arrays.asList("base", "web");
+        }
+        if (injectError()) {
+            throw new FakeOdooException("odoo.exceptions.UserError", "Injected error");
+        }
+        if (OdooJSONRpc.CALLKW_URI.equals(path) || path.startsWith(OdooJSONRpc.CALLKW_URI + "/")) {
+            JSONArray args = params.optJSONArray("args");
+            JSONObject kwargs = params.optJSONObject("kwargs");
+            return store.call(params.optString("model"), params.optString("method"),
+                args == null ? null : args.toList(), kwargs == null ? null : kwargs.toMap());
+        } else if (OdooJSONRpc.SEARCHR_URI.equals(path)) {
+            Map<String, Object> kwargs = new HashMap<>();
+            kwargs.put("domain", toList(params.optJSONArray("domain")));
+            kwargs.put("fields", toList(params.optJSONArray("fields")));
+            kwargs.put("offset", params.optInt("offset"));
+            kwargs.put("limit", params.optInt("limit"));
+            kwargs.put("order", params.optString("sort", null));
+            List<?> records = (List<?>) store.call(params.optString("model"), "search_read", null, kwargs);
+            kwargs.put("limit", 0);
+            kwargs.put("offset", 0);
+            Map<String, Object> result = new HashMap<>();
+            result.put("records", records);
+            result.put("length", store.call(params.optString("model"), "search_count",
+                Collections.singletonList(kwargs.get("domain")), null));
+            return result;
+        }
+        throw new FakeOdooException("werkzeug.exceptions.NotFound", "Not found: " + path);
+    }
+
+    private static String sessionId(HttpExchange exchange) {
+        List<String> headers = exchange.getRequestHeaders().get("Cookie");
+        if (headers != null) {
+            for (String header : headers) {
+                for (String cookie : header.split(";")) {
+                    String[] pair = cookie.trim().split("=", 2);
+                    if (pair.length == 2 && "session_id".equals(pair[0])) {
+                        return pair[1];
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<Object> toList(JSONArray array) {
+        return array == null ? new ArrayList<>() : array.toList();
+    }
+
+    private Map<String, Object> sessionInfo() {
+        Map<String, Object> info = new HashMap<>();
+        info.put("uid", uid);
+        info.put("db", database);
+        info.put("username", user);
+        info.put("user_context", Collections.singletonMap("lang", "en_US"));
+        return info;
+    }
+
+    private boolean authenticate(String db, String login, String pw) {
+        return database.equals(db) && user.equals(login) && password.equals(pw);
+    }
+
+    private static JSONObject error(String name, String message) {
+        JSONObject data = new JSONObject();
+        data.put("name", name);
+        data.put("message", message);
+        data.put("arguments", new JSONArray().put(message));
+        JSONObject error = new JSONObject();
+        error.put("code", 200);
+        error.put("message", "Odoo Server Error");
+        error.put("data", data);
+        return error;
+    }
+
+    private void handleXml(HttpExchange exchange, boolean common) throws IOException {
+        try {
+            byte[] body = readBody(exchange);
+            if (!simulate(exchange)) {
+                return;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            XmlRpcWriter writer = new XmlRpcWriter(xmlConfig, xmlWriterFactory.getXmlWriter(xmlConfig, out),
+                new TypeFactoryImpl(xmlController));
+            try {
+                XmlRpcRequestParser parser = new XmlRpcRequestParser(xmlConfig, new TypeFactoryImpl(xmlController));
+                XMLReader reader = SAXParsers.newXMLReader();
+                reader.setContentHandler(parser);
+                reader.parse(new InputSource(new ByteArrayInputStream(body)));
+                List<?> params = parser.getParams() == null ? new ArrayList<>() : parser.getParams();
+                Object result = common ? xmlCommon(parser.getMethodName(), params)
+                    : xmlObject(parser.getMethodName(), params);
+                writer.write(xmlConfig, toXml(result));
+            } catch (FakeOdooException e) {
+                writer.write(xmlConfig, 1, e.getName() + ": " + e.getMessage());
+            }
+            reply(exchange, 200, "text/xml", out.toByteArray());
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            reply(exchange, 500, "text/plain", String.valueOf(e).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private Object xmlCommon(String method, List<?> params) throws FakeOdooException {
+        if ("authenticate".equals(method) || "login".equals(method)) {
+            boolean ok = params.size() >= 3 && authenticate(String.valueOf(params.get(0)),
+                String.valueOf(params.get(1)), String.valueOf(params.get(2)));
+            return ok ? (Object) uid : Boolean.FALSE;
+        } else if ("version".equals(method)) {
+            Map<String, Object> version = new HashMap<>();
+            version.put("server_version", "14.0");
+            version.put("server_version_info", Arrays.asList(14, 0, 0, "final", 0, ""));
+            version.put("server_serie", "14.0");
+            version.put("protocol_version", 1);
+            return version;
+        }
+        throw new FakeOdooException("builtins.AttributeError", "Method not available " + method);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object xmlObject(String method, List<?> params) throws FakeOdooException {
+        boolean executeKw = "execute_kw".equals(method);
+        if (!executeKw && !"execute".equals(method)) {
+            // odoo does not register system.multicall either
+            throw new FakeOdooException("builtins.AttributeError", "Method not available " + method);
+        }
+        if (params.size() < 5) {
+            throw new FakeOdooException("builtins.TypeError", method + " expects at least 5 arguments");
+        }
+        if (!database.equals(params.get(0)) || !Integer.valueOf(uid).equals(params.get(1))
+                || !password.equals(params.get(2))) {
+            throw new FakeOdooException("odoo.exceptions.AccessDenied", "Access Denied");
+        }
+        if (injectError()) {
+            throw new FakeOdooException("odoo.exceptions.UserError", "Injected error");
+        }
+        String model = String.valueOf(params.get(3));
+        String name = String.valueOf(params.get(4));
+        List<?> args;
+        Map<String, ?> kwargs = null;
+        if (executeKw) {
+            args = params.size() > 5 ? asList(params.get(5)) : null;
+            if (params.size() > 6 && params.get(6) instanceof Map) {
+                kwargs = (Map<String, ?>) params.get(6);
+            }
+        } else {
+            args = params.subList(5, params.size());
+        }
+        return store.call(model, name, args, kwargs);
+    }
+
+    private static List<?> asList(Object value) {
+        if (value instanceof Object[]) {
+            return Arrays.asList((Object[]) value);
+        }
+        return value instanceof List ? (List<?>) value : Collections.singletonList(value);
+    }
+
+    // odoo marshals None as false and lists as arrays
+    private static Object toXml(Object value) {
+        if (value == null) {
+            return Boolean.FALSE;
+        } else if (value instanceof Collection) {
+            Collection<?> items = (Collection<?>) value;
+            Object[] array = new Object[items.size()];
+            int i = 0;
+            for (Object item : items) {
+                array[i++] = toXml(item);
+            }
+            return array;
+        } else if (value instanceof Map) {
+            Map<String, Object> map = new HashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> map.put(String.valueOf(k), toXml(v)));
+            return map;
+        } else if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).doubleValue();
+        } else if (value instanceof Long || value instanceof BigInteger) {
+            long number = ((Number) value).longValue();
+            return number == (int) number ? (Object) (int) number : (Object) number;
+        }
+        return value;
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                body.write(buffer, 0, read);
+            }
+        }
+        return body.toByteArray();
+    }
+
+    private static void reply(HttpExchange exchange, int status, String contentType, byte[] body)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Both clients against FakeOdooServer
+ */
+public class FakeOdooServerTest {
+    private FakeOdooServer server;
+
+    @Before
+    public void start() throws Exception {
+        server = new FakeOdooServer();
+    }
+
+    @After
+    public void stop() {
+        server.close();
+    }
+
+    private static List<Map<String, Object>> partners(int count) {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("name", "Partner " + i);
+            record.put("credit_limit", i * 10);
+            records.add(record);
+        }
+        return records;
+    }
+
+    @Test
+    public void jsonRoundTrip() {
+        try (OdooJSONRpc odoo = new OdooJSONRpc(server.getUrl())) {
+            assertFalse(odoo.login("admin", "odoo", "wrong"));
+            assertTrue(odoo.login("admin", "odoo", "admin"));
+
+            List<Integer> ids = odoo.createMany("res.partner", partners(5));
+            assertEquals(Arrays.asList(1, 2, 3, 4, 5), ids);
+            assertTrue(odoo.write("res.partner", Arrays.asList(2, 3), Collections.singletonMap("name", "Renamed")));
+
+            List<Map<String, Object>> records = odoo.searchReadRecords("res.partner", Arrays.asList("name"),
+                Arrays.asList(Arrays.asList("credit_limit", ">=", 20)), 0, 0, "id desc");
+            assertEquals(4, records.size());
+            assertEquals(5, records.get(0).get("id"));
+            assertEquals("Renamed", records.get(2).get("name"));
+            assertEquals(2, odoo.searchCount("res.partner",
+                Arrays.asList("|", Arrays.asList("id", "=", 1), Arrays.asList("name", "ilike", "partner 5"))));
+        }
+    }
+
+    @Test
+    public void xmlRoundTrip() throws Exception {
+        try (OdooXmlRpc odoo = new OdooXmlRpc()) {
+            assertTrue(odoo.login(server.getUrl(), "odoo", "admin", "admin"));
+            assertEquals(2, odoo.getUid());
+
+            List<Integer> ids = odoo.createMany("res.partner", partners(3));
+            assertEquals(Arrays.asList(1, 2, 3), ids);
+            Map record = odoo.getRecordById("res.partner", 2, Arrays.asList("name", "credit_limit"));
+            assertEquals("Partner 2", record.get("name"));
+            assertEquals(20, record.get("credit_limit"));
+            assertEquals(2, odoo.getRecords("res.partner", Arrays.asList("name"),
+                Arrays.asList(Arrays.asList("credit_limit", "in", Arrays.asList(10, 30)))).size());
+        }
+    }
+
+    @Test
+    public void injectedFailures() {
+        server.getStore().insert("res.partner", partners(2));
+        try (OdooJSONRpc odoo = new OdooJSONRpc(server.getUrl())) {
+            assertTrue(odoo.login("admin", "odoo", "admin"));
+            server.setErrorRate(1);
+            OdooRpcResponse response = odoo.callKw("res.partner", "search", Arrays.asList(Collections.emptyList()));
+            assertFalse(response.isOkay());
+            assertTrue(response.getErrorMessage().contains("Injected error"));
+
+            server.setErrorRate(0);
+            server.setHttpErrorRate(1);
+            long before = server.getRequestCount();
+            assertFalse(odoo.callKw("res.partner", "search", Arrays.asList(Collections.emptyList())).isOkay());
+            assertTrue(server.getRequestCount() > before);
+        }
+    }
+}
@@ -0,0 +1,521 @@
+package com.navds;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory models answering the ORM methods used by the clients:
+ * create, write, unlink, read, search, search_read, search_count, fields_get, load and export_data.
+ * Domains support the prefix operators and the usual comparison operators.
+ */
+public class FakeOdooStore {
+
+    /**
+     * Error raised by a call, reported like an odoo exception
+     */
+    public static class FakeOdooException extends Exception {
+        private static final long serialVersionUID = 1L;
+        private final String name;
+
+        public FakeOdooException(String name, String message) {
+            super(message);
+            this.name = name;
+        }
+
+        /**
+         * @return python exception name, e.g. odoo.exceptions.UserError
+         */
+        public String getName() {
+            return this.name;
+        }
+    }
+
+    private static class Model {
+        private final TreeMap<Integer, Map<String, Object>> records = new TreeMap<>();
+        private int nextId = 1;
+    }
+
+    private final Map<String, Model> models = new ConcurrentHashMap<>();
+
+    private Model model(String name) {
+        return models.computeIfAbsent(name, k -> new Model());
+    }
+
+    /**
+     * Insert records directly, ids are assigned when missing
+     * @param model
+     * @param records
+     * @return ids
+     */
+    public List<Integer> insert(String model, List<Map<String, Object>> records) {
+        List<Integer> ids = new ArrayList<>();
+        for (Map<String, Object> record : records) {
+            ids.add(create(model(model), record));
+        }
+        return ids;
+    }
+
+    /**
+     * @param model
+     * @return copy of every record of the model
+     */
+    public List<Map<String, Object>> records(String model) {
+        Model m = model(model);
+        synchronized (m) {
+            List<Map<String, Object>> copy = new ArrayList<>();
+            m.records.values().forEach(record -> copy.add(new HashMap<>(record)));
+            return copy;
+        }
+    }
+
+    public void clear() {
+        models.clear();
+    }
+
+    /**
+     * Execute an ORM method
+     * @param model
+     * @param method
+     * @param args positional arguments
+     * @param kwargs keyword arguments, may be null
+     * @return result, odoo style (false instead of null)
+     * @throws FakeOdooException on invalid calls
+     */
+    public Object call(String model, String method, List<?> args, Map<String, ?> kwargs) throws FakeOdooException {
+        List<Object> positional = normalize(args == null ? Collections.emptyList() : args);
+        Map<String, Object> keywords = kwargs == null ? Collections.emptyMap() : normalizeMap(kwargs);
+        Model m = model(model);
+        synchronized (m) {
+            switch (method) {
+                case "create":
+                    return create(m, arg(positional, keywords, 0, "vals_list", null));
+                case "write":
+                    return write(m, ids(arg(positional, keywords, 0, "ids", null)),
+                        map(arg(positional, keywords, 1, "vals", null)));
+                case "unlink":
+                    ids(arg(positional, keywords, 0, "ids", null)).forEach(m.records::remove);
+                    return true;
+                case "read":
+                    return read(m, ids(arg(positional, keywords, 0, "ids", null)),
+                        fields(arg(positional, keywords, 1, "fields", null)));
+                case "search":
+                    List<Map<String, Object>> found = search(m, positional, keywords, 0);
+                    if (Boolean.TRUE.equals(arg(positional, keywords, 4, "count", false))) {
+                        return found.size();
+                    }
+                    List<Integer> ids = new ArrayList<>();
+                    found.forEach(record -> ids.add((Integer) record.get("id")));
+                    return ids;
+                case "search_count":
+                    return filter(m, list(arg(positional, keywords, 0, "domain", null))).size();
+                case "search_read":
+                    return read(m, search(m, positional, keywords, 1),
+                        fields(arg(positional, keywords, 1, "fields", null)));
+                case "fields_get":
+                    return fieldsGet(m);
+                case "load":
+                    return load(m, fields(arg(positional, keywords, 0, "fields", null)),
+                        list(arg(positional, keywords, 1, "data", null)));
+                case "export_data":
+                    return exportData(m, ids(arg(positional, keywords, 0, "ids", null)),
+                        fields(arg(positional, keywords, 1, "fields_to_export", null)));
+                default:
+                    throw new FakeOdooException("builtins.AttributeError",
+                        "The method '" + method + "' does not exist on the model '" + model + "'");
+            }
+        }
+    }
+
+    private static Object arg(List<Object> args, Map<String, Object> kwargs, int index, String name,
+            Object defaultValue) {
+        if (index < args.size()) {
+            return args.get(index);
+        }
+        return kwargs.containsKey(name) ? kwargs.get(name) : defaultValue;
+    }
+
+    private Object create(Model m, Object values) throws FakeOdooException {
+        if (values instanceof List) {
+            List<Integer> ids = new ArrayList<>();
+            for (Object item : (List<?>) values) {
+                ids.add(create(m, map(item)));
+            }
+            return ids;
+        }
+        return create(m, map(values));
+    }
+
+    private Integer create(Model m, Map<String, Object> values) {
+        synchronized (m) {
+            Map<String, Object> record = new HashMap<>(values);
+            Object id = record.get("id");
+            int newId = id instanceof Number ? ((Number) id).intValue() : m.nextId;
+            m.nextId = Math.max(m.nextId, newId + 1);
+            String now = now();
+            record.put("id", newId);
+            record.putIfAbsent("create_date", now);
+            record.putIfAbsent("write_date", now);
+            m.records.put(newId, record);
+            return newId;
+        }
+    }
+
+    private Object write(Model m, List<Integer> ids, Map<String, Object> values) throws FakeOdooException {
+        for (Integer id : ids) {
+            if (!m.records.containsKey(id)) {
+                throw new FakeOdooException("odoo.exceptions.MissingError",
+                    "Record does not exist or has been deleted. (Record: " + id + ")");
+            }
+        }
+        String now = now();
+        for (Integer id : ids) {
+            Map<String, Object> record = m.records.get(id);
+            record.putAll(values);
+            record.put("write_date", now);
+        }
+        return true;
+    }
+
+    private List<Map<String, Object>> read(Model m, List<Integer> ids, List<String> fields) {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (Integer id : ids) {
+            Map<String, Object> record = m.records.get(id);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        return read(m, records, fields);
+    }
+
+    private List<Map<String, Object>> read(Model m, Collection<Map<String, Object>> records, List<String> fields) {
+        List<Map<String, Object>> result = new ArrayList<>(records.size());
+        for (Map<String, Object> record : records) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("id", record.get("id"));
+            Collection<String> names = fields.isEmpty() ? record.keySet() : fields;
+            for (String field : names) {
+                Object value = record.get(field);
+                values.put(field, value == null ? false : value);
+            }
+            result.add(values);
+        }
+        return result;
+    }
+
+    private List<Map<String, Object>> search(Model m, List<Object> args, Map<String, Object> kwargs, int shift)
+            throws FakeOdooException {
+        // search(domain, offset, limit, order) and search_read(domain, fields, offset, limit, order)
+        List<Map<String, Object>> found = filter(m, list(arg(args, kwargs, 0, "domain", null)));
+        Object order = arg(args, kwargs, 3 + shift, "order", null);
+        if (order instanceof String && !((String) order).trim().isEmpty()) {
+            found.sort(comparator((String) order));
+        }
+        int offset = number(arg(args, kwargs, 1 + shift, "offset", 0));
+        int limit = number(arg(args, kwargs, 2 + shift, "limit", 0));
+        int from = Math.min(offset, found.size());
+        int to = limit > 0 ? Math.min(from + limit, found.size()) : found.size();
+        return new ArrayList<>(found.subList(from, to));
+    }
+
+    private Map<String, Object> fieldsGet(Model m) {
+        Map<String, Object> fields = new TreeMap<>();
+        for (Map<String, Object> record : m.records.values()) {
+            for (Map.Entry<String, Object> entry : record.entrySet()) {
+                if (!fields.containsKey(entry.getKey())) {
+                    Map<String, Object> attributes = new HashMap<>();
+                    attributes.put("string", entry.getKey());
+                    attributes.put("type", type(entry.getValue()));
+                    fields.put(entry.getKey(), attributes);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static String type(Object value) {
+        if (value instanceof Integer || value instanceof Long) {
+            return "integer";
+        } else if (value instanceof Number) {
+            return "float";
+        } else if (value instanceof Boolean) {
+            return "boolean";
+        } else if (value instanceof List) {
+            return "many2one";
+        }
+        return "char";
+    }
+
+    private Map<String, Object> load(Model m, List<String> fields, List<Object> rows) {
+        List<Map<String, Object>> messages = new ArrayList<>();
+        List<Map<String, Object>> values = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            List<Object> row = list(rows.get(i));
+            Map<String, Object> record = new HashMap<>();
+            for (int f = 0; f < fields.size() && f < row.size(); f++) {
+                if (!"id".equals(fields.get(f))) {
+                    record.put(fields.get(f), row.get(f));
+                }
+            }
+            if (record.get("name") == null || "".equals(record.get("name"))) {
+                Map<String, Object> message = new HashMap<>();
+                message.put("type", "error");
+                message.put("record", i);
+                message.put("field", "name");
+                message.put("message", "Missing required value for the field 'Name' (name)");
+                messages.add(message);
+            }
+            values.add(record);
+        }
+        Map<String, Object> result = new HashMap<>();
+        if (messages.isEmpty()) {
+            List<Integer> ids = new ArrayList<>();
+            values.forEach(record -> ids.add(create(m, record)));
+            result.put("ids", ids);
+        } else {
+            result.put("ids", false);
+        }
+        result.put("messages", messages);
+        return result;
+    }
+
+    private Map<String, Object> exportData(Model m, List<Integer> ids, List<String> fields) {
+        List<List<Object>> rows = new ArrayList<>();
+        for (Map<String, Object> record : read(m, ids, fields)) {
+            List<Object> row = new ArrayList<>();
+            for (String field : fields) {
+                Object value = record.get(field);
+                row.add(value instanceof List ? ((List<?>) value).get(((List<?>) value).size() - 1) : value);
+            }
+            rows.add(row);
+        }
+        return Collections.singletonMap("datas", rows);
+    }
+
+    private List<Map<String, Object>> filter(Model m, List<Object> domain) throws FakeOdooException {
+        List<Map<String, Object>> found = new ArrayList<>();
+        for (Map<String, Object> record : m.records.values()) {
+            if (matches(domain, record)) {
+                found.add(record);
+            }
+        }
+        return found;
+    }
+
+    static boolean matches(List<Object> domain, Map<String, Object> record) throws FakeOdooException {
+        Iterator<Object> tokens = domain.iterator();
+        boolean result = true;
+        // top level terms are implicitly and-ed
+        while (tokens.hasNext()) {
+            result &= evaluate(tokens, record);
+        }
+        return result;
+    }
+
+    private static boolean evaluate(Iterator<Object> tokens, Map<String, Object> record) throws FakeOdooException {
+        if (!tokens.hasNext()) {
+            throw new FakeOdooException("builtins.ValueError", "Invalid domain, missing operand");
+        }
+        Object token = tokens.next();
+        if ("&".equals(token)) {
+            boolean left = evaluate(tokens, record);
+            return evaluate(tokens, record) && left;
+        } else if ("|".equals(token)) {
+            boolean left = evaluate(tokens, record);
+            return evaluate(tokens, record) || left;
+        } else if ("!".equals(token)) {
+            return !evaluate(tokens, record);
+        } else if (token instanceof List && ((List<?>) token).size() == 3) {
+            List<?> term = (List<?>) token;
+            return compare(record, term.get(0), String.valueOf(term.get(1)), term.get(2));
+        }
+        throw new FakeOdooException("builtins.ValueError", "Invalid leaf " + token);
+    }
+
+    private static boolean compare(Map<String, Object> record, Object field, String operator, Object expected)
+            throws FakeOdooException {
+        if (!(field instanceof String)) {
+            // TRUE_LEAF (1, '=', 1) and FALSE_LEAF (0, '=', 1)
+            return equal(field, expected);
+        }
+        Object value = record.get(field);
+        if (value instanceof List && !((List<?>) value).isEmpty()) {
+            value = ((List<?>) value).get(0);
+        }
+        switch (operator) {
+            case "=":
+                return equal(value, expected);
+            case "!=":
+                return !equal(value, expected);
+            case ">":
+                return order(value, expected) > 0;
+            case ">=":
+                return order(value, expected) >= 0;
+            case "<":
+                return order(value, expected) < 0;
+            case "<=":
+                return order(value, expected) <= 0;
+            case "in":
+                return contains(expected, value);
+            case "not in":
+                return !contains(expected, value);
+            case "like":
+                return value instanceof String && ((String) value).contains(String.valueOf(expected));
+            case "ilike":
+                return value instanceof String
+                    && ((String) value).toLowerCase().contains(String.valueOf(expected).toLowerCase());
+            default:
+                throw new FakeOdooException("builtins.ValueError", "Invalid operator " + operator);
+        }
+    }
+
+    private static boolean contains(Object expected, Object value) {
+        if (expected instanceof Collection) {
+            for (Object item : (Collection<?>) expected) {
+                if (equal(value, item)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return equal(value, expected);
+    }
+
+    private static boolean equal(Object value, Object expected) {
+        if (value == null || Boolean.FALSE.equals(value)) {
+            return expected == null || Boolean.FALSE.equals(expected);
+        }
+        Double left = toDouble(value);
+        Double right = toDouble(expected);
+        if (left != null && right != null) {
+            return left.doubleValue() == right.doubleValue();
+        }
+        return value.equals(expected);
+    }
+
+    // null/false first, then numbers or strings
+    private static int order(Object value, Object other) {
+        boolean valueEmpty = value == null || Boolean.FALSE.equals(value);
+        boolean otherEmpty = other == null || Boolean.FALSE.equals(other);
+        if (valueEmpty || otherEmpty) {
+            return valueEmpty == otherEmpty ? 0 : (valueEmpty ? -1 : 1);
+        }
+        Double left = toDouble(value);
+        Double right = toDouble(other);
+        if (left != null && right != null) {
+            return Double.compare(left, right);
+        }
+        return String.valueOf(value).compareTo(String.valueOf(other));
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Double.valueOf((String) value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Comparator<Map<String, Object>> comparator(String order) {
+        Comparator<Map<String, Object>> comparator = null;
+        for (String part : order.split(",")) {
+            String[] words = part.trim().split("\\s+");
+            String field = words[0];
+            Comparator<Map<String, Object>> byField = (a, b) -> order(a.get(field), b.get(field));
+            if (words.length > 1 && "desc".equalsIgnoreCase(words[1])) {
+                byField = byField.reversed();
+            }
+            comparator = comparator == null ? byField : comparator.thenComparing(byField);
+        }
+        return comparator;
+    }
+
+    private static String now() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date());
+    }
+
+    private static int number(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    private static List<Integer> ids(Object value) throws FakeOdooException {
+        List<Integer> ids = new ArrayList<>();
+        if (value instanceof Number) {
+            ids.add(((Number) value).intValue());
+            return ids;
+        }
+        for (Object id : list(value)) {
+            if (!(id instanceof Number)) {
+                throw new FakeOdooException("builtins.TypeError", "Invalid id " + id);
+            }
+            ids.add(((Number) id).intValue());
+        }
+        return ids;
+    }
+
+    private static List<String> fields(Object value) {
+        List<String> fields = new ArrayList<>();
+        if (value instanceof List) {
+            ((List<?>) value).forEach(field -> fields.add(String.valueOf(field)));
+        }
+        return fields;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> list(Object value) {
+        return value instanceof List ? (List<Object>) value : new ArrayList<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) throws FakeOdooException {
+        if (!(value instanceof Map)) {
+            throw new FakeOdooException("builtins.TypeError", "Expected a dictionary of values, got " + value);
+        }
+        return (Map<String, Object>) value;
+    }
+
+    // XML-RPC arrays are Object[], JSON ones are lists already
+    private static List<Object> normalize(Collection<?> values) {
+        List<Object> result = new ArrayList<>(values.size());
+        values.forEach(value -> result.add(normalizeValue(value)));
+        return result;
+    }
+
+    private static Map<String, Object> normalizeMap(Map<String, ?> values) {
+        Map<String, Object> result = new HashMap<>();
+        values.forEach((key, value) -> result.put(key, normalizeValue(value)));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object normalizeValue(Object value) {
+        if (value instanceof Object[]) {
+            return normalize(Arrays.asList((Object[]) value));
+        } else if (value instanceof Collection) {
+            return normalize((Collection<?>) value);
+        } else if (value instanceof Map) {
+            return normalizeMap((Map<String, ?>) value);
+        }
+        return value;
+    }
+}
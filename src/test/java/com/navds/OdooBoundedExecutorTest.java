@@ -0,0 +1,109 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Test class for OdooBoundedExecutor
+ */
+public class OdooBoundedExecutorTest {
+
+    @Test
+    public void neverRunsMoreThanMaxInFlight() throws Exception {
+        ExecutorService pool = OdooExecutors.newRpcExecutor("test");
+        OdooBoundedExecutor executor = new OdooBoundedExecutor(pool, 3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int value = i;
+            futures.add(executor.submit(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return value;
+            }));
+        }
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, (int) futures.get(i).get());
+        }
+        assertTrue(peak.get() <= 3);
+        assertEquals(0, executor.getInFlight());
+        pool.shutdown();
+    }
+
+    @Test
+    public void failureCompletesExceptionally() {
+        ExecutorService pool = OdooExecutors.newRpcExecutor("test");
+        OdooBoundedExecutor executor = new OdooBoundedExecutor(pool, 1);
+        CompletableFuture<Object> future = executor.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+        assertTrue(future.handle((r, e) -> e != null).join());
+        assertEquals("ok", executor.submit(() -> "ok").join());
+        pool.shutdown();
+    }
+
+    @Test(timeout = 10000)
+    public void nestedSubmissionsRunInline() {
+        ExecutorService pool = OdooExecutors.newRpcExecutor("test");
+        OdooBoundedExecutor executor = new OdooBoundedExecutor(pool, 2);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int value = i;
+            futures.add(executor.submit(() -> executor.submit(() -> value * 2).join() + 1));
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i * 2 + 1, (int) futures.get(i).join());
+        }
+        assertEquals(0, executor.getInFlight());
+        pool.shutdown();
+    }
+
+    @Test(timeout = 10000)
+    public void rejectedTasksFailWithoutRecursion() {
+        ExecutorService pool = OdooExecutors.newRpcExecutor("test");
+        OdooBoundedExecutor executor = new OdooBoundedExecutor(pool, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> first = executor.submit(() -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "done";
+        });
+        List<CompletableFuture<Object>> queued = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            queued.add(executor.submit(() -> "never"));
+        }
+        try {
+            running.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.shutdown();
+        release.countDown();
+        assertEquals("done", first.join());
+        for (CompletableFuture<Object> future : queued) {
+            assertTrue(future.handle((r, e) -> e instanceof RejectedExecutionException).join());
+        }
+        assertEquals(0, executor.getInFlight());
+    }
+}
@@ -0,0 +1,112 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Test class for OdooBulkLoad
+ */
+public class OdooBulkLoadTest {
+
+    private static List<List<Object>> rows(int count) {
+        List<List<Object>> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(Arrays.asList("partner " + i, i % 37 == 5 ? "bad" : "ok"));
+        }
+        return rows;
+    }
+
+    // like odoo load: the whole call is rolled back if one row is bad
+    private static OdooBulkLoad.LoadResult load(List<?> rows) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            List<?> row = (List<?>) rows.get(i);
+            if ("bad".equals(row.get(1))) {
+                Map<String, Object> message = new HashMap<>();
+                message.put("type", "error");
+                message.put("message", "Invalid value");
+                message.put("record", i);
+                message.put("field", "state");
+                return new OdooBulkLoad.LoadResult(null, Collections.singletonList(message));
+            }
+            ids.add(Integer.parseInt(((String) row.get(0)).substring(8)) + 1000);
+        }
+        return new OdooBulkLoad.LoadResult(ids, null);
+    }
+
+    @Test
+    public void bisectsFailedChunks() {
+        OdooBulkLoad bulkLoad = new OdooBulkLoad(OdooBulkLoadTest::load);
+        bulkLoad.setChunkSize(16);
+        OdooBulkLoad.Report report = bulkLoad.run(rows(100));
+        assertEquals(Arrays.asList(5, 42, 79), report.getFailedRows());
+        assertEquals(97, report.getIds().size());
+        assertEquals(1000, (int) report.getIds().get(0));
+        assertEquals(1099, (int) report.getIds().get(96));
+        assertEquals(3, report.getMessages().size());
+        assertEquals(42, report.getMessages().get(1).getRow());
+        assertEquals("state", report.getMessages().get(1).getField());
+        assertFalse(report.isComplete());
+        // 7 chunks, then 2 calls per bisection level (16, 8, 4, 2) for each bad row
+        assertTrue(report.getRequestCount() <= 7 + 3 * 2 * 4);
+    }
+
+    @Test
+    public void failedCallsAreNotBisected() {
+        AtomicInteger calls = new AtomicInteger();
+        OdooBulkLoad bulkLoad = new OdooBulkLoad(rows -> {
+            calls.incrementAndGet();
+            if ("partner 16".equals(((List<?>) rows.get(0)).get(0))) {
+                throw new SocketTimeoutException("Read timed out");
+            }
+            return load(rows);
+        });
+        bulkLoad.setChunkSize(16);
+        OdooBulkLoad.Report report = bulkLoad.run(rows(32));
+        // second chunk failed as a whole, first chunk bisected for its bad row
+        assertEquals(17, report.getFailedRows().size());
+        assertEquals(16, (int) report.getFailedRows().get(1));
+        assertEquals(15, report.getIds().size());
+        assertEquals("Read timed out", report.getMessages().get(1).getText());
+        assertEquals(16, report.getMessages().get(1).getRow());
+        assertEquals(2 + 2 * 4, calls.get());
+    }
+
+    @Test
+    public void splitsBySizeAndBoundsParallelism() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        OdooBulkLoad bulkLoad = new OdooBulkLoad(rows -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            running.decrementAndGet();
+            assertTrue(rows.size() <= 10);
+            List<Integer> ids = new ArrayList<>();
+            rows.forEach(row -> ids.add(1));
+            return new OdooBulkLoad.LoadResult(ids, null);
+        });
+        bulkLoad.setMaxChunkBytes(150);
+        bulkLoad.setParallelism(2);
+        List<List<Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add(Arrays.asList("xxxxxxxxxx"));
+        }
+        OdooBulkLoad.Report report = bulkLoad.run(rows);
+        assertTrue(report.isComplete());
+        assertEquals(100, report.getIds().size());
+        assertTrue(report.getRequestCount() >= 10);
+        assertTrue(maxRunning.get() <= 2);
+    }
+}
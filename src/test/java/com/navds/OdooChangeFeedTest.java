@@ -0,0 +1,118 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for OdooChangeFeed
+ */
+public class OdooChangeFeedTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<Map<String, Object>> table = new ArrayList<>();
+    private int requests = 0;
+
+    private void record(int id, String createDate, String writeDate) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("id", id);
+        record.put("create_date", createDate);
+        record.put("write_date", writeDate);
+        table.add(record);
+    }
+
+    // search_read ordered by write_date, id understanding the keyset domain only
+    private List<Map<String, Object>> fetch(List<Object> domain, int limit) {
+        requests++;
+        String writeDate = domain.isEmpty() ? "" : (String) ((List<?>) domain.get(1)).get(2);
+        int id = domain.isEmpty() ? 0 : (Integer) ((List<?>) domain.get(4)).get(2);
+        return table.stream()
+            .sorted((a, b) -> {
+                int order = ((String) a.get("write_date")).compareTo((String) b.get("write_date"));
+                return order != 0 ? order : (Integer) a.get("id") - (Integer) b.get("id");
+            })
+            .filter(r -> {
+                int order = ((String) r.get("write_date")).compareTo(writeDate);
+                return order > 0 || (order == 0 && (Integer) r.get("id") > id);
+            })
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    public void emitsChangesAfterWatermark() {
+        record(1, "2024-01-01 00:00:00", "2024-01-02 00:00:00");
+        record(2, "2024-01-01 00:00:00", "2024-01-03 00:00:00");
+        record(3, "2024-01-01 00:00:00", "2024-01-03 00:00:00");
+        record(4, "2024-01-04 00:00:00", "2024-01-04 00:00:00");
+
+        OdooChangeFeed full = new OdooChangeFeed("res.partner", this::fetch, null, null, 2);
+        List<OdooChangeEvent> events = full.stream().collect(Collectors.toList());
+        assertEquals(4, events.size());
+        assertTrue(events.stream().allMatch(e -> e.getType() == OdooChangeEvent.Type.INSERT));
+        assertEquals(new OdooWatermark("2024-01-04 00:00:00", 4), full.getWatermark());
+        assertEquals(3, requests);
+
+        OdooChangeFeed incremental = new OdooChangeFeed("res.partner", this::fetch, null,
+            new OdooWatermark("2024-01-03 00:00:00", 2), 10);
+        events = incremental.stream().collect(Collectors.toList());
+        assertEquals(2, events.size());
+        assertEquals(3, events.get(0).getId());
+        assertEquals(OdooChangeEvent.Type.UPDATE, events.get(0).getType());
+        assertEquals(OdooChangeEvent.Type.INSERT, events.get(1).getType());
+    }
+
+    @Test
+    public void tombstonesWithoutContext() throws Exception {
+        try (FakeOdooServer server = new FakeOdooServer(); OdooJSONRpc odoo = new OdooJSONRpc(server.getUrl())) {
+            server.getStore().insert("res.partner", Arrays.asList(Collections.singletonMap("name", "Kept")));
+            odoo.login("admin", "odoo", "admin");
+            odoo.setContext(null);
+            List<OdooChangeEvent> deleted = odoo.tombstones("res.partner", Arrays.asList(1, 2));
+            assertEquals(1, deleted.size());
+            assertEquals(2, deleted.get(0).getId());
+        }
+    }
+
+    @Test
+    public void tombstonesSkipFailedChunks() {
+        List<OdooChangeEvent> deleted = OdooChangeFeed.tombstones("res.partner", Arrays.asList(1, 2, 3, 4, 5),
+            ids -> {
+                if (ids.contains(5)) {
+                    throw new IllegalStateException("down");
+                }
+                return Arrays.asList(1, 3);
+            }, 2);
+        assertEquals(2, deleted.size());
+        assertEquals(2, deleted.get(0).getId());
+        assertEquals(4, deleted.get(1).getId());
+        assertEquals(OdooChangeEvent.Type.DELETE, deleted.get(0).getType());
+    }
+
+    @Test
+    public void storesWatermarks() throws Exception {
+        File file = new File(folder.getRoot(), "sync/watermarks.properties");
+        OdooWatermarkStore store = new OdooWatermarkStore(file);
+        assertNull(store.load("res.partner"));
+        assertTrue(store.save("res.partner", new OdooWatermark("2024-01-03 00:00:00", 42)));
+        assertEquals(new OdooWatermark("2024-01-03 00:00:00", 42),
+            new OdooWatermarkStore(file).load("res.partner"));
+        assertTrue(store.remove("res.partner"));
+        assertNull(store.load("res.partner"));
+    }
+}
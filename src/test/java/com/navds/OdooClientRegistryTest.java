@@ -0,0 +1,72 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+/**
+ * Test class for OdooClientRegistry
+ */
+public class OdooClientRegistryTest {
+
+    @Test
+    public void checksPassword() throws Exception {
+        try (FakeOdooServer server = new FakeOdooServer(); OdooClientRegistry registry = new OdooClientRegistry()) {
+            server.getStore().insert("res.partner", Arrays.asList(Collections.singletonMap("name", "a")));
+            OdooJSONRpc client = registry.get(server.getUrl(), "odoo", "admin", "admin");
+            assertNotNull(client);
+            assertNull(registry.get(server.getUrl(), "odoo", "admin", "guess"));
+            assertSame(client, registry.get(server.getUrl(), "odoo", "admin", "admin"));
+
+            // password changed on the server
+            server.setCredentials("odoo", "admin", "changed", 2);
+            OdooJSONRpc changed = registry.get(server.getUrl(), "odoo", "admin", "changed");
+            assertNotNull(changed);
+            assertTrue(changed != client);
+            assertNull(registry.get(server.getUrl(), "odoo", "admin", "admin"));
+            assertEquals(1, registry.size());
+        }
+    }
+
+    @Test
+    public void loginAgainOnExpiredSession() throws Exception {
+        try (FakeOdooServer server = new FakeOdooServer(); OdooClientRegistry registry = new OdooClientRegistry()) {
+            server.getStore().insert("res.partner", Arrays.asList(Collections.singletonMap("name", "a")));
+            OdooJSONRpc client = registry.get(server.getUrl(), "odoo", "admin", "admin");
+            server.expireSessions();
+            assertEquals(1, client.read("res.partner", Arrays.asList("name"), Arrays.asList(1)).size());
+            assertTrue(client.isConnected());
+
+            // login refused: the registry does not hand out the client anymore
+            server.expireSessions();
+            server.setCredentials("odoo", "admin", "changed", 2);
+            assertTrue(client.read("res.partner", Arrays.asList("name"), Arrays.asList(1)).isEmpty());
+            assertFalse(client.isConnected());
+            assertNull(registry.get(server.getUrl(), "odoo", "admin", "admin"));
+        }
+    }
+
+    @Test
+    public void removeKeepsCallsInFlight() throws Exception {
+        try (FakeOdooServer server = new FakeOdooServer(); OdooClientRegistry registry = new OdooClientRegistry()) {
+            server.getStore().insert("res.partner", Arrays.asList(Collections.singletonMap("name", "a")));
+            OdooJSONRpc client = registry.get(server.getUrl(), "odoo", "admin", "admin");
+            server.setLatency(300, 0);
+            CompletableFuture<Integer> inFlight = CompletableFuture.supplyAsync(
+                () -> client.searchCount("res.partner", Collections.emptyList()));
+            Thread.sleep(100);
+            registry.remove(server.getUrl(), "odoo", "admin");
+            assertEquals(0, registry.size());
+            assertEquals(1, (int) inFlight.join());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+/**
+ * Test class for OdooExport and OdooRowSink
+ */
+public class OdooExportTest {
+
+    private static final List<Integer> IDS = IntStream.rangeClosed(1, 50).boxed().collect(Collectors.toList());
+
+    // one row per id, later chunks answer first
+    private static List<List<Object>> export(List<Integer> ids) throws InterruptedException {
+        Thread.sleep(Math.max(0, 20 - ids.get(0) / 5));
+        List<List<Object>> rows = new ArrayList<>();
+        for (Integer id : ids) {
+            rows.add(Arrays.asList(id, "name " + id));
+        }
+        return rows;
+    }
+
+    @Test
+    public void writesRowsInOrder() throws Exception {
+        OdooExport export = new OdooExport(OdooExportTest::export);
+        export.setChunkSize(7);
+        List<Object> written = new ArrayList<>();
+        OdooExport.Result result = export.run(IDS, row -> written.add(row.get(0)));
+        assertEquals(50, result.getRowCount());
+        assertEquals(IDS, written);
+    }
+
+    @Test
+    public void writesEveryRowUnordered() throws Exception {
+        OdooExport export = new OdooExport(OdooExportTest::export);
+        export.setChunkSize(7);
+        export.setOrdered(false);
+        List<Integer> written = new ArrayList<>();
+        export.run(IDS, row -> written.add((Integer) row.get(0)));
+        Collections.sort(written);
+        assertEquals(IDS, written);
+    }
+
+    @Test
+    public void retriesThenReportsFailedChunks() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        OdooExport export = new OdooExport(ids -> {
+            if (ids.contains(1) && attempts.incrementAndGet() < 2) {
+                throw new IllegalStateException("timeout");
+            }
+            if (ids.contains(50)) {
+                throw new IllegalStateException("access error");
+            }
+            return export(ids);
+        });
+        export.setChunkSize(10);
+        export.setRetries(2, 1);
+        OdooExport.Result result = export.run(IDS, row -> { });
+        assertEquals(40, result.getRowCount());
+        assertFalse(result.isComplete());
+        assertEquals(IDS.subList(40, 50), result.getFailedIds());
+    }
+
+    @Test(timeout = 10000)
+    public void reportsAbruptlyFailedChunksUnordered() throws Exception {
+        OdooExport export = new OdooExport(ids -> {
+            if (ids.contains(25)) {
+                throw new AssertionError("not an exception");
+            }
+            return export(ids);
+        });
+        export.setChunkSize(10);
+        export.setOrdered(false);
+        OdooExport.Result result = export.run(IDS, row -> { });
+        assertEquals(40, result.getRowCount());
+        assertEquals(IDS.subList(20, 30), result.getFailedIds());
+    }
+
+    @Test
+    public void failedSearchIsNotAnEmptyExport() throws Exception {
+        try (FakeOdooServer server = new FakeOdooServer(); OdooJSONRpc odoo = new OdooJSONRpc(server.getUrl())) {
+            odoo.login("admin", "odoo", "admin");
+            server.failNext(1);
+            try {
+                odoo.exportFiltered("res.partner", new ArrayList<>(), Arrays.asList("name"), row -> { });
+                fail("a failed search must not be reported as a complete export");
+            } catch (IOException expected) {
+                // http 503
+            }
+        }
+    }
+
+    @Test
+    public void quotesCsvCells() throws Exception {
+        StringWriter out = new StringWriter();
+        OdooRowSink sink = OdooRowSink.csv(out, Arrays.asList("id", "name"));
+        sink.accept(Arrays.asList(1, "Doe, \"John\""));
+        sink.accept(Arrays.asList(2, false));
+        assertEquals("id,name\r\n1,\"Doe, \"\"John\"\"\"\r\n2,\r\n", out.toString());
+
+        out = new StringWriter();
+        OdooRowSink.jsonLines(out, Arrays.asList("id", "name")).accept(Arrays.asList(3, null));
+        assertTrue(out.toString().endsWith("\n"));
+        assertTrue(new JSONObject("{\"id\":3,\"name\":null}").similar(new JSONObject(out.toString())));
+    }
+}
@@ -0,0 +1,85 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Test class for OdooFanOut
+ */
+public class OdooFanOutTest {
+
+    @Test
+    public void cancelledTasksReleasePermits() throws Exception {
+        OdooFanOut fanOut = new OdooFanOut("test-cancelled-tasks", 3);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        fanOut.setExecutor(executor);
+        // keeps the only thread busy so the fanned out tasks stay queued
+        CountDownLatch blocker = new CountDownLatch(1);
+        executor.submit(() -> {
+            blocker.await();
+            return null;
+        });
+        Thread caller = Thread.currentThread();
+        Thread interrupter = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            caller.interrupt();
+        });
+        interrupter.start();
+        try {
+            fanOut.map(Arrays.asList(1, 2, 3), id -> id);
+            fail("interrupted map should fail");
+        } catch (CompletionException expected) {
+            Thread.interrupted();
+        }
+        interrupter.join();
+        blocker.countDown();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        assertEquals(3, fanOut.availablePermits());
+    }
+
+    @Test
+    public void failureWaitsForStartedCalls() throws Exception {
+        OdooFanOut fanOut = new OdooFanOut("test-started-calls", 3);
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicInteger finished = new AtomicInteger();
+        try {
+            fanOut.map(Arrays.asList(1, 2, 3), id -> {
+                if (id == 1) {
+                    try {
+                        started.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IllegalStateException("boom");
+                }
+                started.countDown();
+                // a blocking http call does not stop on interrupt
+                long end = System.currentTimeMillis() + 200;
+                while (System.currentTimeMillis() < end) {
+                    Thread.yield();
+                }
+                finished.incrementAndGet();
+                return id;
+            });
+            fail("failed map should throw");
+        } catch (CompletionException expected) {
+            assertEquals(2, finished.get());
+        }
+        assertEquals(3, fanOut.availablePermits());
+    }
+}
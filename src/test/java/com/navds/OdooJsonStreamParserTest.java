@@ -0,0 +1,52 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+/**
+ * Test class for OdooJsonStreamParser
+ */
+public class OdooJsonStreamParserTest {
+
+    private static JSONObject parse(String body, List<Object> rows) throws Exception {
+        return new OdooJsonStreamParser(rows::add)
+            .parse(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void streamsResultArray() throws Exception {
+        List<Object> rows = new ArrayList<>();
+        JSONObject envelope = parse("{\"jsonrpc\": \"2.0\", \"id\": 2, \"result\": "
+            + "[{\"id\": 1, \"name\": \"Ana\\u00efs\"}, {\"id\": 2, \"name\": false}]}", rows);
+        assertEquals(2, rows.size());
+        assertEquals("Anaïs", ((Map<?, ?>) rows.get(0)).get("name"));
+        assertEquals(0, envelope.getJSONArray("result").length());
+        assertEquals(2, envelope.getInt("id"));
+    }
+
+    @Test
+    public void streamsSearchReadRecords() throws Exception {
+        List<Object> rows = new ArrayList<>();
+        JSONObject envelope = parse("{\"result\": {\"length\": 3, \"records\": [{\"id\": 1}, {\"id\": 2}, {\"id\": 3}]}}", rows);
+        assertEquals(3, rows.size());
+        assertEquals(3, envelope.getJSONObject("result").getInt("length"));
+    }
+
+    @Test
+    public void keepsErrorAndScalarResult() throws Exception {
+        List<Object> rows = new ArrayList<>();
+        JSONObject envelope = parse("{\"error\": {\"data\": {\"name\": \"ValidationError\", \"message\": \"bad\"}}}", rows);
+        assertTrue(rows.isEmpty());
+        assertEquals("bad", envelope.getJSONObject("error").getJSONObject("data").getString("message"));
+        assertEquals(42, parse("{\"result\": 42}", rows).getInt("result"));
+    }
+}
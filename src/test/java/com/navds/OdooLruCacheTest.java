@@ -0,0 +1,39 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Test class for OdooLruCache
+ */
+public class OdooLruCacheTest {
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        OdooLruCache<Integer, String> cache = new OdooLruCache<>(2);
+        cache.put(1, "a", 60000);
+        cache.put(2, "b", 60000);
+        cache.get(1);
+        cache.put(3, "c", 60000);
+        assertNull(cache.get(2));
+        assertEquals("a", cache.get(1));
+        assertEquals("c", cache.get(3));
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void expiresAndInvalidates() throws Exception {
+        OdooLruCache<Integer, String> cache = new OdooLruCache<>(10);
+        cache.put(1, "a", 1);
+        cache.put(2, "b", 60000);
+        cache.put(3, "c", 60000);
+        Thread.sleep(5);
+        assertNull(cache.get(1));
+        cache.invalidateIf(key -> key == 2);
+        assertNull(cache.get(2));
+        assertEquals(1, cache.size());
+    }
+}
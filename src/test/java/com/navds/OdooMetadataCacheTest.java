@@ -0,0 +1,84 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+/**
+ * Test class for OdooMetadataCache
+ */
+public class OdooMetadataCacheTest {
+    private static final List<String> ATTRIBUTES = Arrays.asList("string", "type");
+
+    private static Supplier<Map<String, Object>> loader(String label, AtomicInteger calls) {
+        return () -> {
+            calls.incrementAndGet();
+            Map<String, Object> name = new HashMap<>();
+            name.put("string", label);
+            name.put("type", "char");
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("name", name);
+            return fields;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object label(Map<String, Object> fields) {
+        return ((Map<String, Object>) fields.get("name")).get("string");
+    }
+
+    @Test
+    public void keyedByUserAndLanguage() {
+        OdooMetadataCache cache = new OdooMetadataCache();
+        AtomicInteger calls = new AtomicInteger();
+        cache.fieldsGet("odoo", "prod", 2, "en_US", "res.partner", ATTRIBUTES, loader("Name", calls));
+        Map<String, Object> french = cache.fieldsGet("odoo", "prod", 2, "fr_FR", "res.partner", ATTRIBUTES,
+            loader("Nom", calls));
+        assertEquals("Nom", label(french));
+        cache.fieldsGet("odoo", "prod", 6, "en_US", "res.partner", ATTRIBUTES, loader("Name", calls));
+        assertEquals(3, calls.get());
+        cache.fieldsGet("odoo", "prod", 2, "fr_FR", "res.partner", Arrays.asList("type", "string"),
+            loader("Nom", calls));
+        assertEquals(3, calls.get());
+
+        cache.invalidate("odoo", "prod", "res.partner");
+        cache.fieldsGet("odoo", "prod", 2, "fr_FR", "res.partner", ATTRIBUTES, loader("Nom", calls));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void returnsCopies() {
+        OdooMetadataCache cache = new OdooMetadataCache();
+        AtomicInteger calls = new AtomicInteger();
+        Map<String, Object> fields = cache.fieldsGet("odoo", "prod", 2, null, "res.partner", ATTRIBUTES,
+            loader("Name", calls));
+        fields.remove("name");
+        fields = cache.fieldsGet("odoo", "prod", 2, null, "res.partner", ATTRIBUTES, loader("Name", calls));
+        ((Map<String, Object>) fields.get("name")).put("string", "Changed");
+        fields.put("email", Collections.emptyMap());
+
+        fields = cache.fieldsGet("odoo", "prod", 2, null, "res.partner", ATTRIBUTES, loader("Name", calls));
+        assertEquals(1, calls.get());
+        assertEquals("Name", label(fields));
+        assertFalse(fields.containsKey("email"));
+    }
+
+    @Test
+    public void optIn() {
+        try (OdooJSONRpc json = new OdooJSONRpc("http://localhost:8069"); OdooXmlRpc xml = new OdooXmlRpc()) {
+            assertNull(json.getMetadataCache());
+            assertNull(xml.getMetadataCache());
+        }
+    }
+}
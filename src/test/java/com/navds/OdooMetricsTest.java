@@ -0,0 +1,89 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.xmlrpc.XmlRpcException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * OdooMicrometerMetrics fed by both clients
+ */
+public class OdooMetricsTest {
+    private FakeOdooServer server;
+    private SimpleMeterRegistry registry;
+
+    @Before
+    public void start() throws Exception {
+        server = new FakeOdooServer();
+        registry = new SimpleMeterRegistry();
+    }
+
+    @After
+    public void stop() {
+        server.close();
+    }
+
+    @Test
+    public void jsonCalls() {
+        try (OdooJSONRpc odoo = new OdooJSONRpc(server.getUrl())) {
+            odoo.setMetrics(new OdooMicrometerMetrics(registry));
+            odoo.login("admin", "odoo", "admin");
+            odoo.create("res.partner", Collections.singletonMap("name", "Partner"));
+            odoo.create("res.partner", Collections.singletonMap("name", "Other"));
+            server.setErrorRate(1);
+            odoo.create("res.partner", Collections.singletonMap("name", "Failed"));
+
+            Timer created = registry.get("odoo.rpc").tags("endpoint", OdooJSONRpc.CALLKW_URI, "model", "res.partner",
+                "method", "create", "outcome", "success").timer();
+            assertEquals(2, created.count());
+            assertEquals(1, registry.get("odoo.rpc").tags("endpoint", OdooJSONRpc.AUTH_URI, "model", "none",
+                "outcome", "success").timer().count());
+            assertEquals(1.0, registry.get("odoo.rpc.errors").tags("method", "create",
+                "exception", "odoo.exceptions.UserError").counter().count(), 0);
+            assertTrue(registry.get("odoo.rpc.request.bytes").tags("method", "create").summary().totalAmount() > 0);
+            assertTrue(registry.get("odoo.rpc.response.bytes").tags("method", "create").summary().totalAmount() > 0);
+            assertEquals(0, registry.get("odoo.rpc.in.flight").gauge().value(), 0);
+            assertTrue(registry.get("odoo.pool.max").tags("client", "json").gauge().value() > 0);
+        }
+    }
+
+    @Test
+    public void xmlCalls() {
+        try (OdooXmlRpc odoo = new OdooXmlRpc()) {
+            odoo.setMetrics(new OdooMicrometerMetrics(registry));
+            odoo.login(server.getUrl(), "odoo", "admin", "admin");
+            odoo.createRecord("res.partner", Collections.singletonMap("name", "Partner"));
+            odoo.getRecords("res.partner", Arrays.asList("name"));
+
+            assertEquals(1, registry.get("odoo.rpc").tags("endpoint", "/xmlrpc/2/common", "method", "authenticate",
+                "outcome", "success").timer().count());
+            assertEquals(1, registry.get("odoo.rpc").tags("endpoint", "/xmlrpc/2/object", "model", "res.partner",
+                "method", "search_read", "outcome", "success").timer().count());
+            assertNotNull(registry.get("odoo.pool.leased").tags("client", "xmlrpc").gauge());
+        }
+    }
+
+    @Test
+    public void faultNames() {
+        assertEquals("odoo.exceptions.UserError", XmlRpcHttpClientTransport.errorName(
+            new XmlRpcException(1, "odoo.exceptions.UserError: Injected error")));
+        assertEquals("odoo.exceptions.ValidationError", XmlRpcHttpClientTransport.errorName(new XmlRpcException(1,
+            "Traceback (most recent call last):\n  File \"x.py\", line 1\nodoo.exceptions.ValidationError: bad")));
+        assertEquals("xmlrpc_fault_3", XmlRpcHttpClientTransport.errorName(new XmlRpcException(3, "Access Denied")));
+        // XmlRpcStreamTransport wraps transport failures in a plain XmlRpcException
+        assertEquals("org.apache.http.NoHttpResponseException", XmlRpcHttpClientTransport.errorName(
+            new XmlRpcException("Failed to read server's response: failed to respond",
+                new NoHttpResponseException("failed to respond"))));
+    }
+}
@@ -0,0 +1,118 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Test class for OdooRecordCache
+ */
+public class OdooRecordCacheTest {
+
+    private static Map<String, Object> record(int id, String name) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("id", id);
+        record.put("name", name);
+        return record;
+    }
+
+    @Test
+    public void keyedByFieldSet() {
+        OdooRecordCache cache = new OdooRecordCache();
+        cache.put("res.partner", Arrays.asList("name", "id"), record(1, "a"));
+        assertNotNull(cache.get("res.partner", 1, Arrays.asList("id", "name")));
+        assertNull(cache.get("res.partner", 1, Arrays.asList("name")));
+        assertNull(cache.get("res.users", 1, Arrays.asList("id", "name")));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void invalidatedByWriteAndUnlink() {
+        OdooRecordCache cache = new OdooRecordCache();
+        cache.put("res.partner", null, record(1, "a"));
+        cache.put("res.partner", null, record(2, "b"));
+        cache.put("res.partner", null, record(3, "c"));
+        cache.invalidate("res.partner", "read", Arrays.asList(Arrays.asList(1)));
+        assertEquals(3, cache.size());
+        cache.invalidate("res.partner", "write", Arrays.asList(Arrays.asList(1, 2), new HashMap<>()));
+        assertNull(cache.get("res.partner", 1, null));
+        assertNull(cache.get("res.partner", 2, null));
+        cache.invalidate("res.partner", "unlink", Arrays.asList(3));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void invalidatesEveryFieldSetOfRecord() {
+        OdooRecordCache cache = new OdooRecordCache(2, OdooRecordCache.DEFAULT_TTL_MILLIS);
+        cache.put("res.partner", null, record(1, "a"));
+        cache.put("res.partner", Arrays.asList("name"), record(1, "a"));
+        cache.put("res.partner", Arrays.asList("name"), record(2, "b"));
+        // one entry per record, whatever the field sets read
+        assertEquals(2, cache.size());
+        cache.invalidate("res.partner", Arrays.asList(1));
+        assertNull(cache.get("res.partner", 1, null));
+        assertNull(cache.get("res.partner", 1, Arrays.asList("name")));
+        assertNotNull(cache.get("res.partner", 2, Arrays.asList("name")));
+    }
+
+    @Test
+    public void dropsReadsStartedBeforeInvalidation() {
+        OdooRecordCache cache = new OdooRecordCache();
+        long generation = cache.getGeneration("res.partner");
+        // a write lands while the read is in flight
+        cache.invalidate("res.partner", "write", Arrays.asList(Arrays.asList(1), new HashMap<>()));
+        cache.put("res.partner", null, record(1, "stale"), generation);
+        assertNull(cache.get("res.partner", 1, null));
+        cache.put("res.users", null, record(1, "other model"), cache.getGeneration("res.users"));
+        assertNotNull(cache.get("res.users", 1, null));
+
+        cache.put("res.partner", null, record(1, "fresh"), cache.getGeneration("res.partner"));
+        assertEquals("fresh", cache.get("res.partner", 1, null).get("name"));
+    }
+
+    @Test
+    public void perModelTtl() {
+        OdooRecordCache cache = new OdooRecordCache();
+        cache.setTtlMillis("stock.quant", 0);
+        cache.put("stock.quant", null, record(1, "a"));
+        assertNull(cache.get("stock.quant", 1, null));
+    }
+
+    @Test
+    public void invalidatedByBatchedWrites() throws Exception {
+        try (FakeOdooServer server = new FakeOdooServer();
+                OdooJSONRpc json = new OdooJSONRpc(server.getUrl()); OdooXmlRpc xml = new OdooXmlRpc()) {
+            server.getStore().insert("res.partner", Arrays.asList(Collections.singletonMap("name", "a")));
+            List<String> fields = Arrays.asList("name");
+            List<Integer> ids = Arrays.asList(1);
+            json.login("admin", "odoo", "admin");
+            json.setRecordCache(new OdooRecordCache());
+            json.read("res.partner", fields, ids);
+            OdooJSONRpcBatch batch = new OdooJSONRpcBatch(json);
+            batch.add("res.partner", "write", Arrays.asList(ids, Collections.singletonMap("name", "b")));
+            batch.execute();
+            assertEquals("b", json.read("res.partner", fields, ids).get(0).get("name"));
+
+            xml.login(server.getUrl(), "odoo", "admin", "admin");
+            xml.setRecordCache(new OdooRecordCache());
+            xml.getRecordCache().put("res.partner", fields, record(1, "b"));
+            try (OdooXmlRpcBatch multicall = new OdooXmlRpcBatch(xml)) {
+                multicall.setMulticall(true);
+                server.dropNext(1);
+                multicall.add("res.partner", "write", Arrays.asList(ids, Collections.singletonMap("name", "c")), null);
+                multicall.flush();
+            }
+            // no answer: the write may have been applied
+            assertNull(xml.getRecordCache().get("res.partner", 1, fields));
+        }
+    }
+}
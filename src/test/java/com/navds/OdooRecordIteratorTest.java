@@ -0,0 +1,90 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+/**
+ * Test class for OdooRecordIterator
+ */
+public class OdooRecordIteratorTest {
+
+    /**
+     * Serve ids 1..count, honoring the id &gt; last keyset term
+     */
+    private static OdooRecordIterator.PageFetcher table(int count, List<Integer> calls) {
+        return (domain, limit) -> {
+            int lastId = 0;
+            for (Object term : domain) {
+                lastId = ((Number) ((List<?>) term).get(2)).intValue();
+            }
+            calls.add(lastId);
+            List<Map<String, Object>> page = new ArrayList<>();
+            for (int id = lastId + 1; id <= count && page.size() < limit; id++) {
+                Map<String, Object> record = new HashMap<>();
+                record.put("id", id);
+                page.add(record);
+            }
+            return page;
+        };
+    }
+
+    @Test
+    public void pagesThroughWholeTable() {
+        List<Integer> calls = Collections.synchronizedList(new ArrayList<>());
+        List<Object> ids = new OdooRecordIterator(table(25, calls), null, 10)
+            .stream()
+            .map(r -> r.get("id"))
+            .collect(Collectors.toList());
+        assertEquals(25, ids.size());
+        assertEquals(25, ids.get(24));
+        assertEquals(3, calls.size());
+        assertEquals(20, (int) calls.get(2));
+    }
+
+    @Test
+    public void emptyResult() {
+        List<Integer> calls = new ArrayList<>();
+        assertFalse(new OdooRecordIterator(table(0, calls), null, 10).hasNext());
+    }
+
+    @Test
+    public void failedPagesAreThrown() throws Exception {
+        try (FakeOdooServer server = new FakeOdooServer();
+                OdooJSONRpc json = new OdooJSONRpc(server.getUrl()); OdooXmlRpc xml = new OdooXmlRpc()) {
+            List<Map<String, Object>> partners = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                partners.add(Collections.singletonMap("name", "Partner " + i));
+            }
+            server.getStore().insert("res.partner", partners);
+            json.login("admin", "odoo", "admin");
+            xml.login(server.getUrl(), "odoo", "admin", "admin");
+
+            List<Runnable> firstPages = Arrays.asList(
+                () -> json.searchReadIterator("res.partner", Arrays.asList("name"), null, 4).hasNext(),
+                () -> xml.iterateRecords("res.partner", Arrays.asList("name"), null, 4).hasNext(),
+                () -> json.changeFeed("res.partner", null, null, null, 4).hasNext(),
+                () -> xml.changeFeed("res.partner", null, null, null, 4).hasNext());
+            for (Runnable firstPage : firstPages) {
+                server.failNext(1);
+                try {
+                    firstPage.run();
+                    fail("a failed page must not end the iteration");
+                } catch (IllegalStateException expected) {
+                    // http 503
+                }
+            }
+            assertEquals(10, json.searchReadIterator("res.partner", Arrays.asList("name"), null, 4).stream().count());
+        }
+    }
+}
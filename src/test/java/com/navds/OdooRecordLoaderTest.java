@@ -0,0 +1,108 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+/**
+ * Test class for OdooRecordLoader
+ */
+public class OdooRecordLoaderTest {
+
+    private final List<List<Integer>> reads = Collections.synchronizedList(new ArrayList<>());
+
+    private List<Map<String, Object>> read(String model, List<String> fields, List<Integer> ids) {
+        reads.add(ids);
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (Integer id : ids) {
+            if (id > 0) {
+                Map<String, Object> record = new HashMap<>();
+                record.put("id", id);
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    @Test
+    public void coalescesLoadsOfTheWindow() {
+        OdooRecordLoader loader = new OdooRecordLoader(this::read);
+        loader.setWindowMillis(50);
+        List<CompletableFuture<Map>> futures = new ArrayList<>();
+        for (int id = 1; id <= 10; id++) {
+            futures.add(loader.load("res.partner", id, null));
+        }
+        futures.add(loader.load("res.partner", 3, null));
+        CompletableFuture<Map> missing = loader.load("res.partner", -1, null);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i + 1, futures.get(i).join().get("id"));
+        }
+        assertEquals(3, futures.get(10).join().get("id"));
+        assertNull(missing.join());
+        assertEquals(1, reads.size());
+        assertEquals(11, reads.get(0).size());
+    }
+
+    @Test
+    public void sendsFullBatches() {
+        OdooRecordLoader loader = new OdooRecordLoader(this::read);
+        loader.setWindowMillis(60000);
+        loader.setMaxBatchSize(4);
+        List<CompletableFuture<Map>> futures = new ArrayList<>();
+        for (int id = 1; id <= 9; id++) {
+            futures.add(loader.load("res.partner", id, null));
+        }
+        loader.flush();
+        futures.forEach(CompletableFuture::join);
+        assertEquals(3, reads.size());
+    }
+
+    @Test
+    public void failsEveryLoadOfTheBatch() {
+        OdooRecordLoader loader = new OdooRecordLoader((model, fields, ids) -> {
+            throw new IllegalStateException("down");
+        });
+        CompletableFuture<Map> first = loader.load("res.partner", 1, null);
+        CompletableFuture<Map> second = loader.load("res.partner", 2, null);
+        assertTrue(first.handle((record, e) -> e instanceof IllegalStateException).join());
+        assertTrue(second.handle((record, e) -> e instanceof IllegalStateException).join());
+    }
+
+    @Test
+    public void readsFailedBatchIdById() {
+        OdooRecordLoader loader = new OdooRecordLoader((model, fields, ids) -> {
+            if (ids.contains(2)) {
+                throw new IllegalStateException("odoo.exceptions.AccessError");
+            }
+            return read(model, fields, ids);
+        });
+        loader.setWindowMillis(60000);
+        CompletableFuture<Map> first = loader.load("res.partner", 1, null);
+        CompletableFuture<Map> denied = loader.load("res.partner", 2, null);
+        CompletableFuture<Map> third = loader.load("res.partner", 3, null);
+        loader.flush();
+        assertEquals(1, first.join().get("id"));
+        assertEquals(3, third.join().get("id"));
+        assertTrue(denied.handle((record, e) -> e instanceof IllegalStateException).join());
+        assertEquals(2, reads.size());
+    }
+
+    @Test(timeout = 10000)
+    public void getSkipsTheWindowWhenAlone() {
+        OdooRecordLoader loader = new OdooRecordLoader(this::read);
+        loader.setWindowMillis(60000);
+        for (int id = 1; id <= 3; id++) {
+            assertEquals(id, loader.get("res.partner", id, null).get("id"));
+        }
+        assertEquals(3, reads.size());
+    }
+}
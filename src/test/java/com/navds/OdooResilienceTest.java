@@ -0,0 +1,256 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.client.XmlRpcHttpTransportException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * OdooRetryPolicy and OdooCircuitBreaker on both clients
+ */
+public class OdooResilienceTest {
+    private FakeOdooServer server;
+    private OdooRetryPolicy retryPolicy;
+
+    @Before
+    public void start() throws Exception {
+        server = new FakeOdooServer();
+        server.setRetryAfterSeconds(0);
+        server.getStore().insert("res.partner",
+            Arrays.asList(Collections.<String, Object>singletonMap("name", "Partner")));
+        retryPolicy = new OdooRetryPolicy();
+        retryPolicy.setDelays(1, 10);
+    }
+
+    @After
+    public void stop() {
+        server.close();
+    }
+
+    @Test
+    public void jsonRetriesIdempotentCalls() {
+        try (OdooJSONRpc odoo = new OdooJSONRpc(server.getUrl())) {
+            odoo.setRetryPolicy(retryPolicy);
+            assertTrue(odoo.login("admin", "odoo", "admin"));
+
+            server.failNext(2);
+            assertEquals(1, odoo.searchCount("res.partner", Collections.emptyList()));
+
+            long before = server.getRequestCount();
+            server.failNext(1);
+            assertEquals(0, odoo.create("res.partner", Collections.<String, Object>singletonMap("name", "Lost")));
+            assertEquals(1, server.getRequestCount() - before);
+
+            retryPolicy.setRetryCreate(true);
+            server.failNext(1);
+            assertTrue(odoo.create("res.partner", Collections.<String, Object>singletonMap("name", "Kept")) > 0);
+        }
+    }
+
+    @Test
+    public void jsonGivesUp() {
+        try (OdooJSONRpc odoo = new OdooJSONRpc(server.getUrl())) {
+            odoo.setRetryPolicy(retryPolicy);
+            odoo.login("admin", "odoo", "admin");
+            server.setHttpErrorRate(1);
+            long before = server.getRequestCount();
+            OdooRpcResponse response = odoo.callKw("res.partner", "search", Arrays.asList(Collections.emptyList()));
+            assertEquals("http_503", response.getErrorName());
+            assertEquals(OdooRetryPolicy.DEFAULT_MAX_ATTEMPTS, server.getRequestCount() - before);
+
+            // asked to wait longer than the max delay
+            server.setRetryAfterSeconds(1);
+            before = server.getRequestCount();
+            odoo.callKw("res.partner", "search", Arrays.asList(Collections.emptyList()));
+            assertEquals(1, server.getRequestCount() - before);
+        }
+    }
+
+    @Test
+    public void circuitBreaker() {
+        OdooCircuitBreaker breaker = new OdooCircuitBreaker(server.getUrl(), 2, 60000);
+        try (OdooJSONRpc odoo = new OdooJSONRpc(server.getUrl()); OdooXmlRpc xml = new OdooXmlRpc()) {
+            odoo.setCircuitBreaker(breaker);
+            xml.setCircuitBreaker(breaker);
+            odoo.login("admin", "odoo", "admin");
+            xml.login(server.getUrl(), "odoo", "admin", "admin");
+
+            server.setErrorRate(1);
+            odoo.searchCount("res.partner", Collections.emptyList());
+            assertEquals(OdooCircuitBreaker.State.CLOSED, breaker.getState());
+
+            server.setErrorRate(0);
+            server.setHttpErrorRate(1);
+            odoo.searchCount("res.partner", Collections.emptyList());
+            xml.getRecords("res.partner", Arrays.asList("name"));
+            assertEquals(OdooCircuitBreaker.State.OPEN, breaker.getState());
+
+            long before = server.getRequestCount();
+            assertEquals("circuit_open", odoo.callKw("res.partner", "search_count",
+                Arrays.asList(Collections.emptyList())).getErrorName());
+            assertTrue(xml.getRecords("res.partner", Arrays.asList("name")).isEmpty());
+            assertEquals(before, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void probeClosesCircuit() {
+        OdooCircuitBreaker breaker = new OdooCircuitBreaker("test", 1, 0);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(OdooCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(OdooCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void xmlRetriesIdempotentCalls() {
+        try (OdooXmlRpc odoo = new OdooXmlRpc()) {
+            odoo.setRetryPolicy(retryPolicy);
+            server.failNext(1);
+            assertTrue(odoo.login(server.getUrl(), "odoo", "admin", "admin"));
+
+            server.failNext(2);
+            assertEquals(1, odoo.getRecords("res.partner", Arrays.asList("name")).size());
+
+            server.failNext(1);
+            assertEquals(Integer.valueOf(-1),
+                odoo.createRecord("res.partner", Collections.singletonMap("name", "Lost")));
+            assertEquals(1, server.getStore().records("res.partner").size());
+        }
+    }
+
+    private static List<Map<String, Object>> multicall(OdooXmlRpc odoo, String... methods) {
+        List<Map<String, Object>> calls = new ArrayList<>();
+        for (String method : methods) {
+            Map<String, Object> call = new HashMap<>();
+            call.put("methodName", "execute_kw");
+            call.put("params", odoo.executeKwParams("res.partner", method,
+                Arrays.asList(Arrays.asList(1), Collections.singletonMap("name", "Twice")), null));
+            calls.add(call);
+        }
+        return calls;
+    }
+
+    @Test
+    public void xmlMulticallOfWritesIsSentOnce() throws Exception {
+        try (OdooXmlRpc odoo = new OdooXmlRpc()) {
+            odoo.setRetryPolicy(retryPolicy);
+            assertTrue(odoo.login(server.getUrl(), "odoo", "admin", "admin"));
+
+            long before = server.getRequestCount();
+            server.failNext(1);
+            try {
+                odoo.multicall(multicall(odoo, "read", "write"));
+                fail("503 expected");
+            } catch (XmlRpcHttpTransportException expected) {
+                assertEquals(503, expected.getStatusCode());
+            }
+            assertEquals(1, server.getRequestCount() - before);
+
+            // reads only: sent again, then refused as odoo does not know system.multicall
+            before = server.getRequestCount();
+            server.failNext(1);
+            try {
+                odoo.multicall(multicall(odoo, "read", "search_count"));
+                fail("fault expected");
+            } catch (XmlRpcException expected) {
+                assertTrue(XmlRpcHttpClientTransport.isFault(expected));
+            }
+            assertEquals(2, server.getRequestCount() - before);
+        }
+    }
+
+    @Test
+    public void xmlRetriesDroppedConnections() {
+        OdooCircuitBreaker breaker = new OdooCircuitBreaker(server.getUrl(), 3, 60000);
+        try (OdooXmlRpc odoo = new OdooXmlRpc()) {
+            odoo.setRetryPolicy(retryPolicy);
+            odoo.setCircuitBreaker(breaker);
+            server.dropNext(2);
+            assertTrue(odoo.login(server.getUrl(), "odoo", "admin", "admin"));
+            assertEquals(3, server.getRequestCount());
+
+            server.dropNext(3);
+            assertTrue(odoo.getRecords("res.partner", Arrays.asList("name")).isEmpty());
+            assertEquals(6, server.getRequestCount());
+            assertEquals(OdooCircuitBreaker.State.OPEN, breaker.getState());
+        }
+    }
+
+    @Test
+    public void xmlRetriesRefusedConnections() throws Exception {
+        String url = server.getUrl();
+        server.close();
+        OdooCircuitBreaker breaker = new OdooCircuitBreaker(url, 3, 60000);
+        try (OdooXmlRpc odoo = new OdooXmlRpc()) {
+            odoo.setRetryPolicy(retryPolicy);
+            odoo.setCircuitBreaker(breaker);
+            assertFalse(odoo.login(url, "odoo", "admin", "admin"));
+            assertEquals(OdooCircuitBreaker.State.OPEN, breaker.getState());
+        }
+    }
+
+    @Test
+    public void runtimeExceptionReleasesProbe() {
+        OdooCircuitBreaker breaker = new OdooCircuitBreaker(server.getUrl(), 1, 0);
+        OdooTracer failingTracer = new OdooTracer(trace -> {
+            throw new IllegalStateException("sink failure");
+        });
+        try (OdooJSONRpc odoo = new OdooJSONRpc(server.getUrl()); OdooXmlRpc xml = new OdooXmlRpc()) {
+            odoo.login("admin", "odoo", "admin");
+            xml.login(server.getUrl(), "odoo", "admin", "admin");
+            odoo.setCircuitBreaker(breaker);
+            xml.setCircuitBreaker(breaker);
+            odoo.setTracer(failingTracer);
+            xml.setTracer(failingTracer);
+            // open the circuit, next call is the half-open probe
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+
+            try {
+                odoo.searchCount("res.partner", Collections.emptyList());
+            } catch (IllegalStateException expected) {
+                // thrown by the sink
+            }
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+
+            try {
+                xml.getRecords("res.partner", Arrays.asList("name"));
+            } catch (IllegalStateException expected) {
+                // thrown by the sink
+            }
+            assertTrue(breaker.tryAcquire());
+        }
+    }
+
+    @Test
+    public void delays() {
+        OdooRetryPolicy policy = new OdooRetryPolicy();
+        policy.setDelays(100, 1000);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(policy.delayMillis(1, null) <= 100);
+            assertTrue(policy.delayMillis(10, null) <= 1000);
+        }
+        assertTrue(policy.delayMillis(1, "1") >= 1000);
+        assertEquals(-1, policy.delayMillis(1, "2"));
+        assertEquals(2000, OdooRetryPolicy.parseRetryAfter(" 2 "));
+    }
+}
@@ -0,0 +1,38 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Test class for OdooRpcResponse
+ */
+public class OdooRpcResponseTest {
+
+    @Test
+    public void typedAccessors() {
+        assertEquals(Arrays.asList(3, 5, 8), new OdooRpcResponse(200, "{\"result\": [3, 5, 8]}").resultAsIntArray());
+        assertEquals(42, new OdooRpcResponse(200, "{\"result\": 42}").resultAsInt());
+        OdooRpcResponse records = new OdooRpcResponse(200, "{\"result\": [{\"id\": 1, \"name\": \"foo\"}]}");
+        assertEquals("foo", records.resultAsRecords().get(0).get("name"));
+        OdooRpcResponse searchRead = new OdooRpcResponse(200, "{\"result\": {\"length\": 1, \"records\": [{\"id\": 7}]}}");
+        assertEquals(7, searchRead.resultAsRecords().get(0).get("id"));
+    }
+
+    @Test
+    public void errorAndInvalidBody() {
+        OdooRpcResponse error = new OdooRpcResponse(200,
+            "{\"error\": {\"data\": {\"name\": \"odoo.exceptions.AccessError\", \"message\": \"denied\"}}}");
+        assertFalse(error.isOkay());
+        assertEquals("odoo.exceptions.AccessError. denied", error.getErrorMessage());
+        assertFalse(new OdooRpcResponse(200, "<html>Bad Gateway</html>").isOkay());
+        assertFalse(new OdooRpcResponse().isOkay());
+        OdooRpcResponse response = new OdooRpcResponse(200, "{\"error\": {}}");
+        response.setBody("{\"result\": true}");
+        assertTrue(response.isOkay());
+    }
+}
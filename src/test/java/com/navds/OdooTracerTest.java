@@ -0,0 +1,114 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * OdooTracer sampling, truncation and async sink
+ */
+public class OdooTracerTest {
+    private FakeOdooServer server;
+    private final List<OdooTrace> traces = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void start() throws Exception {
+        server = new FakeOdooServer();
+        server.getStore().insert("res.partner",
+            Arrays.asList(Collections.<String, Object>singletonMap("name", "Société Générale")));
+    }
+
+    @After
+    public void stop() {
+        server.close();
+    }
+
+    @Test
+    public void jsonTrace() {
+        OdooTracer tracer = new OdooTracer(traces::add);
+        try (OdooJSONRpc odoo = new OdooJSONRpc(server.getUrl())) {
+            odoo.login("admin", "odoo", "admin");
+            odoo.setTracer(tracer);
+            odoo.searchReadRecords("res.partner", Arrays.asList("name"), new ArrayList<>(), 0, 0, "id asc");
+            tracer.setMaxBodyBytes(16);
+            odoo.searchCount("res.partner", new ArrayList<>());
+        }
+        assertEquals(2, traces.size());
+        OdooTrace read = traces.get(0);
+        assertEquals("res.partner", read.getModel());
+        assertEquals("search_read", read.getMethod());
+        assertNull(read.getError());
+        assertFalse(read.isResponseTruncated());
+        assertTrue(read.getResponseBody().contains("Société Générale"));
+
+        OdooTrace count = traces.get(1);
+        assertTrue(count.isRequestTruncated());
+        assertEquals(16, count.getRequestBody().length());
+        assertTrue(count.getRequestBytes() > 16);
+    }
+
+    @Test
+    public void xmlTrace() {
+        OdooTracer tracer = new OdooTracer(traces::add);
+        try (OdooXmlRpc odoo = new OdooXmlRpc()) {
+            odoo.login(server.getUrl(), "odoo", "admin", "admin");
+            odoo.setTracer(tracer);
+            odoo.getRecords("res.partner", Arrays.asList("name"));
+        }
+        assertEquals(1, traces.size());
+        assertEquals("/xmlrpc/2/object", traces.get(0).getEndpoint());
+        assertTrue(traces.get(0).getRequestBody().contains("<methodName>execute_kw</methodName>"));
+        assertTrue(traces.get(0).getResponseBody().contains("Société Générale"));
+    }
+
+    @Test
+    public void sampling() {
+        OdooTracer tracer = new OdooTracer(traces::add);
+        tracer.setSampleRate(0);
+        assertNull(tracer.start("/web/dataset/call_kw", "res.partner", "read"));
+        tracer.setSampleRate(1);
+        tracer.start("/web/dataset/call_kw", "res.partner", "read").finish(null);
+        assertEquals(1, traces.size());
+    }
+
+    @Test
+    public void asyncSinkDropsOldest() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OdooTracer tracer;
+        try (OdooAsyncTraceSink sink = new OdooAsyncTraceSink(trace -> {
+            if ("first".equals(trace.getMethod())) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            traces.add(trace);
+        }, 2)) {
+            tracer = new OdooTracer(sink);
+            tracer.start("/", "m", "first").finish(null);
+            blocked.await();
+            for (int i = 0; i < 5; i++) {
+                tracer.start("/", "m", "call" + i).finish(null);
+            }
+            assertEquals(3, sink.getDroppedCount());
+            release.countDown();
+        }
+        assertEquals(Arrays.asList("first", "call3", "call4"),
+            Arrays.asList(traces.get(0).getMethod(), traces.get(1).getMethod(), traces.get(2).getMethod()));
+    }
+}
@@ -0,0 +1,129 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Test class for OdooWriteBatcher
+ */
+public class OdooWriteBatcherTest {
+
+    private final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+
+    private boolean write(String model, List<Integer> ids, Map<String, Object> values) {
+        writes.add(model + ids + values);
+        return !ids.contains(13);
+    }
+
+    @Test
+    public void groupsIdsByValues() {
+        OdooWriteBatcher batcher = new OdooWriteBatcher(this::write);
+        for (int id = 1; id <= 6; id++) {
+            batcher.add("stock.picking", id, Collections.singletonMap("state", id % 2 == 0 ? "done" : "cancel"));
+        }
+        List<OdooWriteBatcher.Outcome> outcomes = batcher.flush();
+        assertEquals(6, outcomes.size());
+        assertTrue(outcomes.stream().allMatch(OdooWriteBatcher.Outcome::isOkay));
+        assertEquals(2, writes.size());
+        assertTrue(writes.contains("stock.picking[2, 4, 6]{state=done}"));
+    }
+
+    @Test
+    public void keepsUpdatesOfARecordInOrder() {
+        OdooWriteBatcher batcher = new OdooWriteBatcher(this::write);
+        batcher.add("stock.picking", 1, Collections.singletonMap("state", "assigned"));
+        batcher.add("stock.picking", 2, Collections.singletonMap("state", "assigned"));
+        batcher.add("stock.picking", 1, Collections.singletonMap("state", "done"));
+        assertEquals(1, writes.size());
+        assertEquals(1, batcher.size());
+        batcher.close();
+        assertEquals("stock.picking[1]{state=done}", writes.get(1));
+    }
+
+    @Test
+    public void isolatesFailingRecords() {
+        OdooWriteBatcher batcher = new OdooWriteBatcher(this::write);
+        batcher.setFlushSize(20);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int id = 1; id <= 20; id++) {
+            futures.add(batcher.add("res.partner", id, Collections.singletonMap("active", false)));
+        }
+        for (int id = 1; id <= 20; id++) {
+            assertEquals(id != 13, futures.get(id - 1).join());
+        }
+    }
+
+    @Test
+    public void failsGroupOnCallFailure() {
+        OdooWriteBatcher batcher = new OdooWriteBatcher((model, ids, values) -> {
+            writes.add(model + ids + values);
+            throw new SocketTimeoutException("Read timed out");
+        });
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int id = 1; id <= 8; id++) {
+            futures.add(batcher.add("res.partner", id, Collections.singletonMap("active", false)));
+        }
+        List<OdooWriteBatcher.Outcome> outcomes = batcher.flush();
+        assertEquals(1, writes.size());
+        assertTrue(outcomes.stream().allMatch(outcome -> outcome.getError() instanceof SocketTimeoutException));
+        assertTrue(futures.stream().allMatch(CompletableFuture::isCompletedExceptionally));
+    }
+
+    @Test
+    public void clientWriteBatchers() throws Exception {
+        try (FakeOdooServer server = new FakeOdooServer();
+                OdooJSONRpc json = new OdooJSONRpc(server.getUrl()); OdooXmlRpc xml = new OdooXmlRpc()) {
+            List<Map<String, Object>> partners = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                partners.add(Collections.singletonMap("name", "Partner " + i));
+            }
+            server.getStore().insert("res.partner", partners);
+            json.login("admin", "odoo", "admin");
+            xml.login(server.getUrl(), "odoo", "admin", "admin");
+            for (OdooWriteBatcher batcher : Arrays.asList(json.writeBatcher(), xml.writeBatcher())) {
+                // refused by odoo: bisected down to single records
+                server.setErrorRate(1);
+                long before = server.getRequestCount();
+                for (int id = 1; id <= 4; id++) {
+                    batcher.add("res.partner", id, Collections.singletonMap("name", "Renamed"));
+                }
+                List<OdooWriteBatcher.Outcome> outcomes = batcher.flush();
+                assertEquals(7, server.getRequestCount() - before);
+                assertTrue(outcomes.stream().noneMatch(OdooWriteBatcher.Outcome::isOkay));
+                assertTrue(outcomes.stream().allMatch(outcome -> outcome.getError() == null));
+
+                // no answer: one call, every future failed
+                server.setErrorRate(0);
+                server.dropNext(1);
+                before = server.getRequestCount();
+                for (int id = 1; id <= 4; id++) {
+                    batcher.add("res.partner", id, Collections.singletonMap("name", "Renamed"));
+                }
+                outcomes = batcher.flush();
+                assertEquals(1, server.getRequestCount() - before);
+                assertTrue(outcomes.stream().allMatch(outcome -> outcome.getError() != null));
+                batcher.close();
+            }
+        }
+    }
+
+    @Test
+    public void flushesOnTimeout() throws Exception {
+        OdooWriteBatcher batcher = new OdooWriteBatcher(this::write);
+        batcher.setFlushTimeoutMillis(20);
+        CompletableFuture<Boolean> future = batcher.add("res.partner", 1, Collections.singletonMap("name", "a"));
+        assertTrue(future.get(5, TimeUnit.SECONDS));
+        assertEquals(0, batcher.size());
+    }
+}
@@ -0,0 +1,57 @@
+package com.navds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for OdooXmlRpcBatch
+ */
+public class OdooXmlRpcBatchTest {
+    private FakeOdooServer server;
+    private OdooXmlRpc odoo;
+
+    @Before
+    public void start() throws Exception {
+        server = new FakeOdooServer();
+        odoo = new OdooXmlRpc();
+        odoo.login(server.getUrl(), "odoo", "admin", "admin");
+    }
+
+    @After
+    public void stop() {
+        odoo.close();
+        server.close();
+    }
+
+    @Test
+    public void multicallFallback() {
+        try (OdooXmlRpcBatch batch = new OdooXmlRpcBatch(odoo)) {
+            batch.setMulticall(true);
+            long before = server.getRequestCount();
+            server.dropNext(1);
+            batch.add("res.partner", "create", Arrays.asList(Collections.singletonMap("name", "Once")), null);
+            List<OdooXmlRpcBatch.Result> results = batch.flush();
+            // no answer: not sent again one by one
+            assertFalse(results.get(0).isOkay());
+            assertEquals(1, server.getRequestCount() - before);
+            assertTrue(batch.isMulticall());
+            assertTrue(server.getStore().records("res.partner").isEmpty());
+
+            // odoo does not know system.multicall
+            batch.add("res.partner", "create", Arrays.asList(Collections.singletonMap("name", "Once")), null);
+            results = batch.flush();
+            assertTrue(results.get(0).isOkay());
+            assertFalse(batch.isMulticall());
+            assertEquals(1, server.getStore().records("res.partner").size());
+        }
+    }
+}